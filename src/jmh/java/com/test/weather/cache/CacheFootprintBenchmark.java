@@ -0,0 +1,94 @@
+package com.test.weather.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * Compares the Caffeine store with the `CompactReadingCache` for the same readings: the retained heap
+ * per cached zip code, measured with JOL when the cache is filled and printed with the results, and
+ * the latency of a hit. The readings carry no encoded bodies, which the compact store does not keep,
+ * so only the stores themselves are compared.
+ * 
+ * @author N Javeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheFootprintBenchmark {
+
+    private static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(3);
+
+    @Param({ "caffeine", "compact" })
+    private String store;
+
+    @Param({ "10000", "100000" })
+    private int entries;
+
+    private Cache cache;
+
+    private int[] zipCodes;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long emptyBytes = GraphLayout.parseInstance(newCache().getNativeCache()).totalSize();
+        cache = newCache();
+        zipCodes = new int[entries];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < entries; i++) {
+            zipCodes[i] = 10000 + i;
+            cache.put(zipCodes[i], WeatherReading.builder()
+                    .currentTemperature(i % 40)
+                    .lowTemperature(i % 40 - 5)
+                    .highTemperature(i % 40 + 5)
+                    .unit(Unit.CELSIUS)
+                    .fetchedAt(now)
+                    .build());
+        }
+        // Shared objects such as the executor are reachable from the empty cache too and cancel out
+        long filledBytes = GraphLayout.parseInstance(cache.getNativeCache()).totalSize();
+        System.out.printf("%n%s store, %d entries: %d bytes retained, %.1f bytes per zip code%n",
+                store, entries, filledBytes - emptyBytes, (filledBytes - emptyBytes) / (double) entries);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object hit(Cursor cursor) {
+        int zipCode = zipCodes[(cursor.next++ & Integer.MAX_VALUE) % zipCodes.length];
+        return cache.get(zipCode).get();
+    }
+
+    private Cache newCache() {
+        if ("compact".equals(store)) {
+            return new CompactReadingCache("weatherCache", TTL_MILLIS, 1024, Integer.MAX_VALUE);
+        }
+        return new CaffeineCache("weatherCache", Caffeine.newBuilder()
+                .expireAfterWrite(TTL_MILLIS, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build());
+    }
+
+}
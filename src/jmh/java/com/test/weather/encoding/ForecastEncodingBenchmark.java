@@ -0,0 +1,86 @@
+package com.test.weather.encoding;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+/**
+ * Benchmarks encoding and decoding a forecast body in each format `/v1` negotiates, as the server
+ * and an internal consumer would on a cache miss. The payload size of each format is printed at
+ * setup; run with the GC profiler to compare allocation too.
+ *
+ * @author N Javeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForecastEncodingBenchmark {
+
+    @Param({ "JSON", "CBOR", "SMILE", "RECORD" })
+    private ForecastFormat format;
+
+    private final Map<ForecastFormat, ObjectMapper> mappers = Map.of(
+            ForecastFormat.JSON, new ObjectMapper(),
+            ForecastFormat.CBOR, new CBORMapper(),
+            ForecastFormat.SMILE, new SmileMapper());
+
+    private WeatherReading reading;
+
+    private ObjectMapper mapper;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        reading = WeatherReading.builder()
+                .currentTemperature(21.4)
+                .lowTemperature(15.2)
+                .highTemperature(26.8)
+                .unit(Unit.CELSIUS)
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+        // Build the converted response up front so only the encoding is measured
+        reading.toResponse(Unit.FAHRENHEIT);
+        mapper = mappers.get(format);
+        body = encode();
+        System.out.printf("%n%s payload: %d bytes%n", format, body.length);
+    }
+
+    /**
+     * Encoding a response into a body, bypassing the bytes cached on the reading.
+     */
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return format == ForecastFormat.RECORD
+                ? ForecastRecordCodec.encode(reading, Unit.FAHRENHEIT)
+                : mapper.writeValueAsBytes(reading.toResponse(Unit.FAHRENHEIT));
+    }
+
+    /**
+     * Decoding a body back into a `WeatherAPIResponse`, as a consumer does.
+     */
+    @Benchmark
+    public WeatherAPIResponse decode() throws Exception {
+        return format == ForecastFormat.RECORD
+                ? ForecastRecordCodec.decode(body)
+                : mapper.readValue(body, WeatherAPIResponse.class);
+    }
+
+}
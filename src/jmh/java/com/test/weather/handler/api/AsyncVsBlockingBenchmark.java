@@ -0,0 +1,123 @@
+package com.test.weather.handler.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.test.weather.WeatherForecastApplication;
+import com.test.weather.sao.WeatherApi;
+
+/**
+ * Compares the blocking and the deferred forecast endpoints when every request is a cache miss
+ * against an upstream that takes 50 ms. Tomcat is limited to 16 worker threads while 64 client
+ * threads drive load, so the blocking endpoint is capped by the worker pool and the async one is not.
+ * 
+ * @author N Javeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class AsyncVsBlockingBenchmark {
+
+    private final AtomicInteger nextZip = new AtomicInteger(100000);
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WeatherForecastApplication.class, SlowUpstreamConfiguration.class)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=16",
+                        "weather.rate-limit.enabled=false")
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/weather-forecast/weather-forecast";
+        client = HttpClient.newHttpClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int blocking() throws Exception {
+        return call("/v1");
+    }
+
+    @Benchmark
+    public int deferred() throws Exception {
+        return call("/v1/async");
+    }
+
+    private int call(String path) throws Exception {
+        // A fresh zip per call keeps every request on the upstream path
+        URI uri = URI.create(baseUrl + path + "?unit=CELSIUS&zipCode=" + nextZip.incrementAndGet());
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Replaces the `WeatherApi` with one that answers after `UPSTREAM_LATENCY_MS`, blocking the
+     * caller on the blocking path and without holding a thread on the async one.
+     */
+    @Configuration
+    public static class SlowUpstreamConfiguration {
+
+        private static final long UPSTREAM_LATENCY_MS = 50;
+
+        @Bean
+        @Primary
+        public WeatherApi slowWeatherApi() {
+            return new WeatherApi() {
+
+                @Override
+                public byte[] getWeatherBytes(String zipCode) throws JsonProcessingException {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(UPSTREAM_LATENCY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.getWeatherBytes(zipCode);
+                }
+
+                @Override
+                public CompletableFuture<byte[]> getWeatherAsync(String zipCode) {
+                    return CompletableFuture.supplyAsync(() -> zipCode,
+                            CompletableFuture.delayedExecutor(UPSTREAM_LATENCY_MS, TimeUnit.MILLISECONDS))
+                            .thenCompose(super::getWeatherAsync);
+                }
+
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.test.weather.ratelimit;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.test.weather.utility.Constants;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Measures the per-request overhead of the rate limiting filter on the admitted path, which has to
+ * stay under a microsecond. Limits are set high enough that no request is ever refused, so every
+ * invocation takes a token and checks the miss budget.
+ * 
+ * @author N Javeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimitFilterBenchmark {
+
+    private static final String ROUTE = "/weather-forecast/v1";
+
+    private static final RateLimit UNLIMITED = new RateLimit(1_000_000_000, 1_000_000_000);
+
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    private RateLimitFilter filter;
+
+    private TokenBucket bucket;
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final MockHttpServletRequest keyed = new MockHttpServletRequest("GET", ROUTE);
+
+        private final MockHttpServletRequest anonymous = new MockHttpServletRequest("GET", ROUTE);
+
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        private final String[] remoteAddresses = new String[1024];
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            keyed.setServletPath(ROUTE);
+            keyed.addHeader(Constants.API_KEY, "benchmark");
+            anonymous.setServletPath(ROUTE);
+            for (int i = 0; i < remoteAddresses.length; i++) {
+                remoteAddresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+            }
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = new RateLimitFilter(Map.of(ROUTE, UNLIMITED), UNLIMITED, 100_000, Set.of("benchmark"));
+        bucket = new TokenBucket(UNLIMITED, System.nanoTime());
+    }
+
+    @Benchmark
+    public long tokenBucket() {
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public int filterSingleClient(Client client) throws Exception {
+        filter.doFilter(client.keyed, client.response, NO_OP);
+        return client.response.getStatus();
+    }
+
+    @Benchmark
+    public int filterManyClients(Client client) throws Exception {
+        client.anonymous.setRemoteAddr(client.remoteAddresses[client.next++ & 1023]);
+        filter.doFilter(client.anonymous, client.response, NO_OP);
+        return client.response.getStatus();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int filterContendedClient(Client client) throws Exception {
+        filter.doFilter(client.keyed, client.response, NO_OP);
+        return client.response.getStatus();
+    }
+
+}
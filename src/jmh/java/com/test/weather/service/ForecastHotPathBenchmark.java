@@ -0,0 +1,151 @@
+package com.test.weather.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.weather.WeatherForecastApplication;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+import com.test.weather.sao.WeatherApi;
+import com.test.weather.sao.WeatherReadingDecoder;
+
+import static com.test.weather.utility.Constants.UNIT;
+import static com.test.weather.utility.Constants.ZIP_CODE;
+
+/**
+ * Benchmarks for the forecast hot path against the real application context. Run with the GC
+ * profiler (configured in build.gradle) to see allocation per operation next to the timings.
+ * 
+ * @author N Javeed
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForecastHotPathBenchmark {
+
+    private static final String HOT_ZIP = "10001";
+
+    private static final String MISS_ZIP = "20002";
+
+    private ConfigurableApplicationContext context;
+
+    private WeatherForecastServiceImpl service;
+
+    private ObjectMapper mapper;
+
+    private Cache cache;
+
+    private Map<String, String> hotRequest;
+
+    private Map<String, String> missRequest;
+
+    private WeatherReadingDecoder decoder;
+
+    private String upstreamPayload;
+
+    private byte[] upstreamBytes;
+
+    private WeatherAPIResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(WeatherForecastApplication.class)
+                .properties("server.port=0")
+                .run();
+        service = context.getBean(WeatherForecastServiceImpl.class);
+        mapper = context.getBean(ObjectMapper.class);
+        cache = context.getBean(CacheManager.class).getCache("weatherCache");
+        hotRequest = Map.of(ZIP_CODE, HOT_ZIP, UNIT, Unit.FAHRENHEIT.name());
+        missRequest = Map.of(ZIP_CODE, MISS_ZIP, UNIT, Unit.FAHRENHEIT.name());
+        decoder = context.getBean(WeatherReadingDecoder.class);
+        upstreamPayload = context.getBean(WeatherApi.class).getWeather(HOT_ZIP);
+        upstreamBytes = context.getBean(WeatherApi.class).getWeatherBytes(HOT_ZIP);
+        response = service.getForecast(hotRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Cache hit in the non-native unit, including the conversion and response construction.
+     */
+    @Benchmark
+    public WeatherAPIResponse getForecastHit() throws Exception {
+        return service.getForecast(hotRequest);
+    }
+
+    /**
+     * Cache miss: the entry is evicted first, so this measures the upstream call, parsing, the cache
+     * write and the response, plus one eviction.
+     */
+    @Benchmark
+    public WeatherAPIResponse getForecastMiss() throws Exception {
+        cache.evict(Integer.valueOf(MISS_ZIP));
+        return service.getForecast(missRequest);
+    }
+
+    /**
+     * Streaming decode of the upstream bytes into the canonical reading followed by unit conversion
+     * into a response.
+     */
+    @Benchmark
+    public WeatherAPIResponse parseAndConvert() throws Exception {
+        WeatherReading reading = decoder.decode(upstreamBytes);
+        return reading.toResponse(Unit.FAHRENHEIT);
+    }
+
+    /**
+     * Baseline for `parseAndConvert`: the previous path that parsed the upstream String into a
+     * `Map<String, String>` and converted each field with `Double.parseDouble`.
+     */
+    @Benchmark
+    public WeatherAPIResponse legacyMapParseAndConvert() throws Exception {
+        Map<String, String> fields = mapper.readValue(upstreamPayload, new TypeReference<Map<String, String>>() {});
+        WeatherReading reading = WeatherReading.builder()
+                .currentTemperature(Double.parseDouble(fields.get("temperature")))
+                .lowTemperature(Double.parseDouble(fields.get("lowTemperature")))
+                .highTemperature(Double.parseDouble(fields.get("highTemperature")))
+                .unit(Enum.valueOf(Unit.class, fields.get("unit").toUpperCase()))
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+        return reading.toResponse(Unit.FAHRENHEIT);
+    }
+
+    /**
+     * Jackson serialization of a response, including its `nextForecast` clone.
+     */
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * Many threads hitting the same hot key at once.
+     */
+    @Benchmark
+    @Threads(8)
+    public WeatherAPIResponse contendedHotKeyHit() throws Exception {
+        return service.getForecast(hotRequest);
+    }
+
+}
@@ -0,0 +1,260 @@
+package com.test.weather.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.test.weather.WeatherForecastApplication;
+import com.test.weather.utility.Constants;
+
+/**
+ * The `LoadTestRunner` class starts the application with a `StubWeatherApi` upstream and drives it
+ * over HTTP with an open-model workload: requests arrive as a Poisson process at `loadtest.rate`
+ * per second whether or not earlier ones have completed, so a slow server builds a queue instead of
+ * slowing the load down. Latency is measured from each request's scheduled arrival, which keeps
+ * queueing delay in the percentiles. Zip codes follow a Zipf distribution.
+ * 
+ * Settings are read from `loadtest.*` system properties; see `README.md`. When `loadtest.slo.p99-ms`
+ * is set the run fails if the measured p99 exceeds it, so it can gate a release.
+ *
+ * To compare serving on virtual threads against platform threads, run it once per mode with
+ * `loadtest.virtual-threads`; the report includes the peak concurrent requests, platform threads and
+ * heap sampled while measuring.
+ *
+ * @author N Javeed
+ */
+public class LoadTestRunner {
+
+    private final double rate = doubleSetting("loadtest.rate", 500);
+
+    private final long warmupSeconds = longSetting("loadtest.warmup-seconds", 10);
+
+    private final long durationSeconds = longSetting("loadtest.duration-seconds", 60);
+
+    private final int zipCount = (int) longSetting("loadtest.zips", 20_000);
+
+    private final double zipfExponent = doubleSetting("loadtest.zipf-exponent", 1.1);
+
+    private final int maxInFlight = (int) longSetting("loadtest.max-in-flight", 10_000);
+
+    private final double sloP99Ms = doubleSetting("loadtest.slo.p99-ms", 0);
+
+    private final boolean virtualThreads = Boolean.getBoolean("loadtest.virtual-threads");
+
+    private final int tomcatThreads = (int) longSetting("loadtest.tomcat-threads", 200);
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final AtomicInteger peakThreads = new AtomicInteger();
+
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+
+    private volatile boolean measuring;
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTestRunner().run() ? 0 : 1);
+    }
+
+    boolean run() throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WeatherForecastApplication.class, StubUpstreamConfiguration.class)
+                .properties("server.port=0",
+                        "weather.rate-limit.enabled=" + System.getProperty("loadtest.rate-limit", "false"),
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.threads.max=" + tomcatThreads)
+                .run();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/weather-forecast/weather-forecast/v1?unit=CELSIUS&zipCode=";
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            StubWeatherApi upstream = context.getBean(StubWeatherApi.class);
+            ZipfGenerator zips = new ZipfGenerator(10_000, zipCount, zipfExponent);
+
+            drive(client, baseUrl, zips, warmupSeconds);
+            long upstreamCallsBefore = upstream.getCallCount();
+            long upstreamFailuresBefore = upstream.getFailureCount();
+            measuring = true;
+            sampler.scheduleAtFixedRate(this::sample, 0, 100, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            drive(client, baseUrl, zips, durationSeconds);
+            awaitInFlight();
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            measuring = false;
+
+            return report(elapsedSeconds, upstream.getCallCount() - upstreamCallsBefore,
+                    upstream.getFailureCount() - upstreamFailuresBefore);
+        } finally {
+            sampler.shutdownNow();
+            clientExecutor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private void drive(HttpClient client, String baseUrl, ZipfGenerator zips, long seconds) {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long next = System.nanoTime();
+        while (next < end) {
+            // Exponential gaps between arrivals make the arrivals a Poisson process
+            next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) / rate * 1e9);
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(client, baseUrl, zips.next(), next);
+        }
+    }
+
+    private void send(HttpClient client, String baseUrl, int zipCode, long scheduledAt) {
+        boolean measured = measuring;
+        int concurrent = inFlight.incrementAndGet();
+        if (concurrent > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        if (measured) {
+            peakInFlight.accumulateAndGet(concurrent, Math::max);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + zipCode))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            inFlight.decrementAndGet();
+            if (!measured) {
+                return;
+            }
+            latencies.recordValue(Math.min(System.nanoTime() - scheduledAt, latencies.getHighestTrackableValue()));
+            completed.increment();
+            if (e != null || response.statusCode() != 200) {
+                errors.increment();
+            } else if (response.headers().firstValue(Constants.IS_CACHED).map(Boolean::parseBoolean).orElse(false)) {
+                hits.increment();
+            }
+        });
+    }
+
+    /**
+     * Samples the JVM's platform threads and heap. Virtual threads are not counted by
+     * `ThreadMXBean`, which is the point of the comparison: a request parked on one holds no platform
+     * thread.
+     */
+    private void sample() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private boolean report(double elapsedSeconds, long upstreamCalls, long upstreamFailures) throws IOException {
+        long requests = completed.sum();
+        long successes = requests - errors.sum();
+        double p50 = millis(latencies.getValueAtPercentile(50));
+        double p99 = millis(latencies.getValueAtPercentile(99));
+        double p999 = millis(latencies.getValueAtPercentile(99.9));
+        double max = millis(latencies.getMaxValue());
+        double hitRatio = successes > 0 ? (double) hits.sum() / successes : 0;
+        boolean sloMet = sloP99Ms <= 0 || p99 <= sloP99Ms;
+
+        double peakHeapMb = peakHeapBytes.get() / (1024.0 * 1024.0);
+
+        String json = String.format(Locale.ROOT,
+                "{\"offeredRate\":%.1f,\"throughput\":%.1f,\"requests\":%d,\"errors\":%d,\"dropped\":%d,"
+                        + "\"latencyMs\":{\"p50\":%.2f,\"p99\":%.2f,\"p999\":%.2f,\"max\":%.2f},"
+                        + "\"cacheHitRatio\":%.4f,\"upstreamCalls\":%d,\"upstreamFailures\":%d,"
+                        + "\"virtualThreads\":%b,\"peakInFlight\":%d,\"peakPlatformThreads\":%d,\"peakHeapMb\":%.1f,"
+                        + "\"sloMet\":%b}",
+                rate, requests / elapsedSeconds, requests, errors.sum(), dropped.sum(),
+                p50, p99, p999, max, hitRatio, upstreamCalls, upstreamFailures,
+                virtualThreads, peakInFlight.get(), peakThreads.get(), peakHeapMb, sloMet);
+        Path output = Path.of(System.getProperty("loadtest.report", "build/results/loadtest/report.json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        Files.writeString(output, json);
+
+        System.out.printf(Locale.ROOT, "%nOffered %.0f req/s for %ds, %d zip codes (Zipf s=%.2f)%n",
+                rate, durationSeconds, zipCount, zipfExponent);
+        System.out.printf(Locale.ROOT, "Throughput       %10.1f req/s%n", requests / elapsedSeconds);
+        System.out.printf(Locale.ROOT, "Requests         %10d (%d errors, %d dropped at the in-flight cap)%n",
+                requests, errors.sum(), dropped.sum());
+        System.out.printf(Locale.ROOT, "Latency p50      %10.2f ms%n", p50);
+        System.out.printf(Locale.ROOT, "Latency p99      %10.2f ms%n", p99);
+        System.out.printf(Locale.ROOT, "Latency p999     %10.2f ms%n", p999);
+        System.out.printf(Locale.ROOT, "Latency max      %10.2f ms%n", max);
+        System.out.printf(Locale.ROOT, "Cache hit ratio  %10.2f %%%n", hitRatio * 100);
+        System.out.printf(Locale.ROOT, "Upstream calls   %10d (%d failed)%n", upstreamCalls, upstreamFailures);
+        System.out.printf(Locale.ROOT, "Serving threads  %10s%n",
+                virtualThreads ? "virtual" : "platform (max " + tomcatThreads + ")");
+        System.out.printf(Locale.ROOT, "Peak in flight   %10d requests%n", peakInFlight.get());
+        System.out.printf(Locale.ROOT, "Peak threads     %10d platform%n", peakThreads.get());
+        System.out.printf(Locale.ROOT, "Peak heap used   %10.1f MB%n", peakHeapMb);
+        System.out.printf("Report written to %s%n", output);
+        if (!sloMet) {
+            System.out.printf(Locale.ROOT, "SLO missed: p99 %.2f ms exceeds %.2f ms%n", p99, sloP99Ms);
+        }
+        return sloMet;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double doubleSetting(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static long longSetting(String name, long defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.test.weather.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * The StubUpstreamConfiguration class replaces the `WeatherApi` the service calls with a
+ * `StubWeatherApi` for the duration of a load test.
+ *
+ * @author N Javeed
+ */
+@Configuration
+public class StubUpstreamConfiguration {
+
+    @Bean
+    @Primary
+    public StubWeatherApi stubWeatherApi(@Value("${loadtest.upstream.latency-median-ms:40}") double medianMs,
+            @Value("${loadtest.upstream.latency-p99-ms:250}") double p99Ms,
+            @Value("${loadtest.upstream.error-rate:0.01}") double errorRate) {
+        return new StubWeatherApi(medianMs, p99Ms, errorRate);
+    }
+
+}
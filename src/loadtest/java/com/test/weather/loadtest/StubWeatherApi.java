@@ -0,0 +1,93 @@
+package com.test.weather.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.test.weather.sao.WeatherApi;
+
+/**
+ * The `StubWeatherApi` class stands in for the external API during load tests. Every call waits for
+ * a latency drawn from a log-normal distribution, fixed by its median and 99th percentile, and fails
+ * with the configured probability. Calls are counted so the report can show how much traffic reached
+ * the upstream.
+ *
+ * @author N Javeed
+ */
+public class StubWeatherApi extends WeatherApi {
+
+    private static final double Z_99 = 2.3263;
+
+    private final double mu;
+
+    private final double sigma;
+
+    private final double errorRate;
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    public StubWeatherApi(double medianMs, double p99Ms, double errorRate) {
+        this.mu = Math.log(Math.max(medianMs, 0.001));
+        this.sigma = Math.max(0, Math.log(Math.max(p99Ms, medianMs) / Math.max(medianMs, 0.001)) / Z_99);
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public String getWeather(String zipCode) {
+        return new String(getWeatherBytes(zipCode), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] getWeatherBytes(String zipCode) {
+        long latencyNanos = sampleLatencyNanos();
+        try {
+            TimeUnit.NANOSECONDS.sleep(latencyNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return respond(zipCode);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getWeatherAsync(String zipCode) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return respond(zipCode);
+            } catch (IllegalStateException e) {
+                throw new CompletionException(e);
+            }
+        }, CompletableFuture.delayedExecutor(sampleLatencyNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    private byte[] respond(String zipCode) {
+        calls.increment();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failures.increment();
+            throw new IllegalStateException("Stub upstream failed for " + zipCode);
+        }
+        int zip = Integer.parseInt(zipCode);
+        double temperature = 10 + zip % 20;
+        return ("{\"location\":\"" + zipCode + "\",\"temperature\":\"" + temperature
+                + "\",\"lowTemperature\":\"" + (temperature - 4) + "\",\"highTemperature\":\"" + (temperature + 3)
+                + "\",\"unit\":\"celsius\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long sampleLatencyNanos() {
+        double latencyMs = Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+        return (long) (latencyMs * 1_000_000);
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.test.weather.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The `ZipfGenerator` class draws zip codes so that the k-th most popular one is requested in
+ * proportion to 1 / k^exponent, which is how a few metro zip codes dominate real traffic while a
+ * long tail is requested rarely.
+ *
+ * @author N Javeed
+ */
+public class ZipfGenerator {
+
+    private final int firstZip;
+
+    private final double[] cumulative;
+
+    public ZipfGenerator(int firstZip, int zipCount, double exponent) {
+        this.firstZip = firstZip;
+        this.cumulative = new double[zipCount];
+        double sum = 0;
+        for (int rank = 1; rank <= zipCount; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < zipCount; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        int rank = index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+        return firstZip + rank;
+    }
+
+}
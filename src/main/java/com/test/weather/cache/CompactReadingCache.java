@@ -0,0 +1,408 @@
+package com.test.weather.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `CompactReadingCache` class is a Spring `Cache` for canonical readings keyed by the integer zip
+ * code. Entries live in an open-addressing table of parallel primitive arrays, so a cached reading
+ * costs no objects on the heap; a `WeatherReading` is only materialized when it is read.
+ *
+ * <p>Approximate heap per cached zip code on a 64-bit JVM with compressed oops, as laid out below;
+ * `CacheFootprintBenchmark` measures the retained size of both stores:
+ * <ul>
+ * <li>Caffeine with the original `zipCode + unit` String keys: about 390 bytes per zip and unit (a
+ * ~51 char key, the response with its `lastUpdated` String, the `nextForecast` list and clone, and
+ * the Caffeine/ConcurrentHashMap nodes), so about 780 bytes for a zip asked in both units.</li>
+ * <li>Caffeine with canonical `WeatherReading` values: about 150 bytes (boxed key, 48 byte reading,
+ * about 85 bytes of node overhead).</li>
+ * <li>This table: 37 bytes per slot (int zip, three doubles, long timestamp, byte unit) at a load
+ * factor between 0.375 and 0.75, so 50 to 100 bytes per zip and no per-entry objects to trace.</li>
+ * </ul>
+ *
+ * <p>Reads are lock-free in the common case through an optimistic `StampedLock` read; writes take the
+ * write lock. Entries expire `ttlMillis` after they were fetched; expired slots are skipped on read
+ * and dropped when the table is rehashed. The table holds at most `maxEntries` zip codes: a new zip
+ * code arriving at the limit replaces the oldest of a few sampled entries, which is an expired one
+ * whenever the sample holds any. Hits, misses, puts and evictions are counted for
+ * `CompactReadingCacheMetrics`.
+ *
+ * @author N Javeed
+ */
+public class CompactReadingCache extends AbstractValueAdaptingCache {
+
+    private static final float MAX_LOAD = 0.75f;
+
+    private static final int EVICTION_SAMPLES = 8;
+
+    private static final Unit[] UNITS = Unit.values();
+
+    private final String name;
+
+    private final long ttlMillis;
+
+    private final int initialCapacity;
+
+    private final int maxEntries;
+
+    private final int maxCapacity;
+
+    private final StampedLock lock = new StampedLock();
+
+    private volatile Table table;
+
+    private int size;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder puts = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Parallel primitive columns of one table generation. A unit code of 0 marks an empty slot,
+     * otherwise it is the unit ordinal plus one.
+     */
+    private static final class Table {
+
+        final int mask;
+        final int[] zips;
+        final byte[] units;
+        final double[] current;
+        final double[] low;
+        final double[] high;
+        final long[] fetchedAt;
+
+        Table(int capacity) {
+            mask = capacity - 1;
+            zips = new int[capacity];
+            units = new byte[capacity];
+            current = new double[capacity];
+            low = new double[capacity];
+            high = new double[capacity];
+            fetchedAt = new long[capacity];
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+    }
+
+    /**
+     * @param name The `name` parameter is the cache name.
+     * @param ttlMillis The `ttlMillis` parameter is how long an entry is kept after it was fetched.
+     * @param initialCapacity The `initialCapacity` parameter is the number of entries the first table
+     * holds without growing.
+     * @param maxEntries The `maxEntries` parameter is the most zip codes kept at once.
+     */
+    public CompactReadingCache(String name, long ttlMillis, int initialCapacity, int maxEntries) {
+        super(false);
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("CompactReadingCache needs room for at least one entry");
+        }
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.maxCapacity = tableSizeFor((long) Math.ceil(maxEntries / (double) MAX_LOAD));
+        this.initialCapacity = tableSizeFor((long) Math.ceil(Math.max(Math.min(initialCapacity, maxEntries), 16) / (double) MAX_LOAD));
+        this.table = new Table(this.initialCapacity);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        int zip = toZip(key);
+        long stamp = lock.tryOptimisticRead();
+        WeatherReading reading = read(table, zip);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                reading = read(table, zip);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (reading == null || isExpired(reading.getFetchedAt(), System.currentTimeMillis())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return reading;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        int zip = toZip(key);
+        if (!(value instanceof WeatherReading reading)) {
+            throw new IllegalArgumentException("CompactReadingCache only stores WeatherReading values");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = findSlot(current, zip);
+            if (current.units[slot] == 0) {
+                if (size >= maxEntries) {
+                    evictOldestSampled(current);
+                    slot = findSlot(current, zip);
+                }
+                if (size + 1 > current.capacity() * MAX_LOAD) {
+                    current = rehash(current);
+                    slot = findSlot(current, zip);
+                }
+                size++;
+            }
+            write(current, slot, zip, reading);
+            puts.increment();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        int zip = toZip(key);
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            int slot = findSlot(current, zip);
+            if (current.units[slot] != 0) {
+                removeSlot(current, slot);
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(initialCapacity);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return The number of occupied slots, including expired entries not yet dropped.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    /**
+     * @return The number of entries dropped, expired when the table was rehashed or replaced at the
+     * size limit.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of slots of the current table.
+     */
+    int capacity() {
+        return table.capacity();
+    }
+
+    private WeatherReading read(Table current, int zip) {
+        int slot = mix(zip) & current.mask;
+        for (int probes = 0; probes <= current.mask; probes++) {
+            byte unit = current.units[slot];
+            if (unit == 0) {
+                return null;
+            }
+            if (current.zips[slot] == zip) {
+                return WeatherReading.builder()
+                        .currentTemperature(current.current[slot])
+                        .lowTemperature(current.low[slot])
+                        .highTemperature(current.high[slot])
+                        .unit(UNITS[unit - 1])
+                        .fetchedAt(current.fetchedAt[slot])
+                        .build();
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        return null;
+    }
+
+    private static int findSlot(Table current, int zip) {
+        int slot = mix(zip) & current.mask;
+        while (current.units[slot] != 0 && current.zips[slot] != zip) {
+            slot = (slot + 1) & current.mask;
+        }
+        return slot;
+    }
+
+    private static void write(Table current, int slot, int zip, WeatherReading reading) {
+        current.zips[slot] = zip;
+        current.current[slot] = reading.getCurrentTemperature();
+        current.low[slot] = reading.getLowTemperature();
+        current.high[slot] = reading.getHighTemperature();
+        current.fetchedAt[slot] = reading.getFetchedAt();
+        current.units[slot] = (byte) (reading.getUnit().ordinal() + 1);
+    }
+
+    private static void copySlot(Table current, int from, int to) {
+        current.zips[to] = current.zips[from];
+        current.current[to] = current.current[from];
+        current.low[to] = current.low[from];
+        current.high[to] = current.high[from];
+        current.fetchedAt[to] = current.fetchedAt[from];
+        current.units[to] = current.units[from];
+    }
+
+    /**
+     * Backward-shift deletion: entries after the hole that may legally move into it are shifted back,
+     * so lookups never need tombstones.
+     */
+    private static void removeSlot(Table current, int slot) {
+        int hole = slot;
+        int index = slot;
+        while (true) {
+            index = (index + 1) & current.mask;
+            if (current.units[index] == 0) {
+                break;
+            }
+            int home = mix(current.zips[index]) & current.mask;
+            if (((index - home) & current.mask) >= ((index - hole) & current.mask)) {
+                copySlot(current, index, hole);
+                hole = index;
+            }
+        }
+        current.units[hole] = 0;
+    }
+
+    /**
+     * Removes the entry fetched longest ago among `EVICTION_SAMPLES` occupied slots found from a random
+     * start. All entries share one TTL, so the oldest sampled entry is also the most expired one.
+     */
+    private void evictOldestSampled(Table current) {
+        int slot = ThreadLocalRandom.current().nextInt() & current.mask;
+        int victim = -1;
+        for (int sampled = 0, probes = 0; sampled < EVICTION_SAMPLES && probes <= current.mask; probes++) {
+            if (current.units[slot] != 0) {
+                if (victim < 0 || current.fetchedAt[slot] < current.fetchedAt[victim]) {
+                    victim = slot;
+                }
+                sampled++;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        removeSlot(current, victim);
+        size--;
+        evictions.increment();
+    }
+
+    /**
+     * Rebuilds the table without its expired entries, doubling the capacity until the live entries
+     * fill at most half of the load limit, but never past the capacity `maxEntries` needs.
+     */
+    private Table rehash(Table current) {
+        long now = System.currentTimeMillis();
+        int live = 0;
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            if (current.units[slot] != 0 && !isExpired(current.fetchedAt[slot], now)) {
+                live++;
+            }
+        }
+        int capacity = current.capacity();
+        while (live + 1 > capacity * MAX_LOAD / 2 && capacity < maxCapacity) {
+            capacity <<= 1;
+        }
+        Table resized = new Table(capacity);
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            if (current.units[slot] != 0 && !isExpired(current.fetchedAt[slot], now)) {
+                int target = findSlot(resized, current.zips[slot]);
+                resized.zips[target] = current.zips[slot];
+                resized.current[target] = current.current[slot];
+                resized.low[target] = current.low[slot];
+                resized.high[target] = current.high[slot];
+                resized.fetchedAt[target] = current.fetchedAt[slot];
+                resized.units[target] = current.units[slot];
+            }
+        }
+        table = resized;
+        evictions.add(size - live);
+        size = live;
+        return resized;
+    }
+
+    private boolean isExpired(long fetchedAt, long now) {
+        return now - fetchedAt >= ttlMillis;
+    }
+
+    private static int toZip(Object key) {
+        if (key instanceof Number number) {
+            return number.intValue();
+        }
+        if (key instanceof String zipCode) {
+            return Integer.parseInt(zipCode);
+        }
+        throw new IllegalArgumentException("CompactReadingCache keys must be zip codes, got " + key);
+    }
+
+    static int mix(int zip) {
+        int h = zip * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(long capacity) {
+        return (int) Math.min(Long.highestOneBit(Math.max(capacity - 1, 1)) << 1, 1 << 30);
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.test.weather.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `MappedReadingStore` class keeps canonical readings in a memory-mapped file of fixed-size
+ * records so they survive a restart. The file is a hash table of `slots` records addressed by zip
+ * code; a zip code may live in any of the `MAX_PROBES` slots starting at its home slot, and when all
+ * of them are taken the oldest reading in that window is overwritten.
+ *
+ * <p>Every record ends with a CRC32C of its contents. A record whose checksum does not match, such as
+ * one torn by a crash in the middle of a write, is treated as an empty slot, so recovery is simply
+ * ignoring it. The same check lets readers run without locks: a reader copies the record out of the
+ * mapping, checks the copy's checksum and decodes only the copy, so a copy that raced a write fails
+ * its checksum and is reported as a miss.
+ *
+ * @author N Javeed
+ */
+public class MappedReadingStore implements Closeable {
+
+    private static final int MAGIC = 0x57464331; // "WFC1"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int RECORD_SIZE = 48;
+
+    private static final int CHECKSUM_OFFSET = 40;
+
+    private static final int MAX_PROBES = 8;
+
+    private static final Unit[] UNITS = Unit.values();
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int mask;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Opens the store at `path`, creating it if needed. An existing file with a different layout or
+     * slot count is reinitialized.
+     *
+     * @param path The `path` parameter is the file backing the store.
+     * @param slots The `slots` parameter is the number of records the file holds, rounded up to a power
+     * of two.
+     */
+    public MappedReadingStore(Path path, int slots) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+        this.mask = capacity - 1;
+        long fileSize = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean compatible = channel.size() == fileSize;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        if (!compatible || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != RECORD_SIZE || buffer.getInt(12) != capacity) {
+            initialize(capacity);
+        }
+    }
+
+    /**
+     * @return The reading stored for the zip code, or `null` if there is none or its record is torn.
+     */
+    public WeatherReading get(int zip) {
+        int home = mix(zip) & mask;
+        byte[] record = new byte[RECORD_SIZE];
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            ByteBuffer copy = copyRecord(offsetOf((home + probe) & mask), record);
+            if (isValid(copy) && copy.getInt(0) == zip) {
+                return decode(copy);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the reading for the zip code through to the file, replacing the previous reading for the
+     * zip code or, when its probe window is full, the oldest reading in that window.
+     */
+    public void put(int zip, WeatherReading reading) {
+        int home = mix(zip) & mask;
+        writeLock.lock();
+        try {
+            int target = -1;
+            int oldest = -1;
+            long oldestFetchedAt = Long.MAX_VALUE;
+            byte[] record = new byte[RECORD_SIZE];
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int offset = offsetOf((home + probe) & mask);
+                if (!isValid(copyRecord(offset, record))) {
+                    if (target < 0) {
+                        target = offset;
+                    }
+                    continue;
+                }
+                if (buffer.getInt(offset) == zip) {
+                    target = offset;
+                    break;
+                }
+                long fetchedAt = buffer.getLong(offset + 32);
+                if (fetchedAt < oldestFetchedAt) {
+                    oldestFetchedAt = fetchedAt;
+                    oldest = offset;
+                }
+            }
+            writeRecord(target >= 0 ? target : oldest, zip, reading);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the reading for the zip code, if stored.
+     */
+    public void remove(int zip) {
+        int home = mix(zip) & mask;
+        writeLock.lock();
+        try {
+            byte[] record = new byte[RECORD_SIZE];
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int offset = offsetOf((home + probe) & mask);
+                ByteBuffer copy = copyRecord(offset, record);
+                if (isValid(copy) && copy.getInt(0) == zip) {
+                    buffer.putInt(offset + CHECKSUM_OFFSET, 0);
+                    buffer.put(offset + 4, (byte) 0);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Empties every slot.
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            for (int slot = 0; slot <= mask; slot++) {
+                int offset = offsetOf(slot);
+                buffer.putInt(offset + CHECKSUM_OFFSET, 0);
+                buffer.put(offset + 4, (byte) 0);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Passes every valid reading in the file, with its zip code, to the consumer. Torn records are
+     * skipped.
+     */
+    public void forEach(Consumer<Entry> consumer) {
+        byte[] record = new byte[RECORD_SIZE];
+        for (int slot = 0; slot <= mask; slot++) {
+            ByteBuffer copy = copyRecord(offsetOf(slot), record);
+            if (isValid(copy)) {
+                consumer.accept(new Entry(copy.getInt(0), decode(copy)));
+            }
+        }
+    }
+
+    /**
+     * A stored reading and the zip code it belongs to.
+     */
+    public record Entry(int zip, WeatherReading reading) {
+    }
+
+    /**
+     * Flushes the mapped pages to disk and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void initialize(int capacity) {
+        writeLock.lock();
+        try {
+            for (int position = 0; position < buffer.capacity(); position += 8) {
+                buffer.putLong(position, 0L);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(12, capacity);
+            buffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the record at `offset` out of the mapping. The copy is not atomic; validating its
+     * checksum tells whether it is a record as some single write left it.
+     */
+    private ByteBuffer copyRecord(int offset, byte[] record) {
+        buffer.get(offset, record);
+        return ByteBuffer.wrap(record);
+    }
+
+    private static WeatherReading decode(ByteBuffer record) {
+        return WeatherReading.builder()
+                .unit(UNITS[record.get(4) - 1])
+                .currentTemperature(record.getDouble(8))
+                .lowTemperature(record.getDouble(16))
+                .highTemperature(record.getDouble(24))
+                .fetchedAt(record.getLong(32))
+                .build();
+    }
+
+    private void writeRecord(int offset, int zip, WeatherReading reading) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putInt(0, zip);
+        record.put(4, (byte) (reading.getUnit().ordinal() + 1));
+        record.putDouble(8, reading.getCurrentTemperature());
+        record.putDouble(16, reading.getLowTemperature());
+        record.putDouble(24, reading.getHighTemperature());
+        record.putLong(32, reading.getFetchedAt());
+        record.putInt(CHECKSUM_OFFSET, checksum(record));
+        // Invalidate first so a crash mid-write leaves a record that fails its checksum
+        buffer.putInt(offset + CHECKSUM_OFFSET, 0);
+        buffer.put(offset, record.array(), 0, CHECKSUM_OFFSET);
+        buffer.putInt(offset + CHECKSUM_OFFSET, record.getInt(CHECKSUM_OFFSET));
+    }
+
+    private static boolean isValid(ByteBuffer record) {
+        byte unit = record.get(4);
+        return unit > 0 && unit <= UNITS.length && record.getInt(CHECKSUM_OFFSET) == checksum(record);
+    }
+
+    private static int checksum(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 0, CHECKSUM_OFFSET);
+        // Never produce 0, which marks an invalidated record
+        return (int) crc.getValue() | 1;
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static int mix(int zip) {
+        int h = zip * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.test.weather.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.test.weather.model.cache.WeatherReading;
+
+/**
+ * The `ReadingExpiry` class lets Caffeine expire each reading on its own schedule: at the TTL the
+ * `TtlPolicy` gave it, plus the grace window, counted from when it was fetched rather than when it
+ * was put, so readings promoted from the persistent tier keep their original age. Reads do not
+ * extend an entry's life.
+ *
+ * @author N Javeed
+ */
+public class ReadingExpiry implements Expiry<Object, Object> {
+
+    private final TtlPolicy ttlPolicy;
+
+    private final long graceMillis;
+
+    public ReadingExpiry(TtlPolicy ttlPolicy, long graceMillis) {
+        this.ttlPolicy = ttlPolicy;
+        this.graceMillis = graceMillis;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        if (!(value instanceof WeatherReading reading) || !(key instanceof Integer zipCode)) {
+            return TimeUnit.MILLISECONDS.toNanos(ttlPolicy.getMaxTtlMillis() + graceMillis);
+        }
+        long expiresAt = reading.getFetchedAt() + ttlPolicy.ttlMillis(zipCode) + graceMillis;
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - System.currentTimeMillis()));
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.test.weather.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `ReadingWeigher` class weighs cache entries by their approximate heap footprint in bytes, so
+ * `weather.cache.max-weight-bytes` bounds memory rather than the entry count. An entry costs a fixed
+ * overhead for the key, the reading and Caffeine's node, plus the response bodies encoded for it and
+ * the daily rollups it carries.
+ *
+ * @author N Javeed
+ */
+public class ReadingWeigher implements Weigher<Object, Object> {
+
+    // Integer key, WeatherReading with its per-unit and per-format arrays, and a Caffeine node with
+    // expiry links
+    static final int ENTRY_OVERHEAD_BYTES = 248;
+
+    // byte[] header
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    // ReadingSummary with its LocalDate, and the list slot pointing at it
+    private static final int SUMMARY_BYTES = 80;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        int weight = ENTRY_OVERHEAD_BYTES;
+        if (value instanceof WeatherReading reading) {
+            for (ForecastFormat format : ForecastFormat.values()) {
+                for (Unit unit : Unit.values()) {
+                    byte[] body = reading.getEncoded(format, unit);
+                    if (body != null) {
+                        weight += ARRAY_HEADER_BYTES + body.length;
+                    }
+                }
+            }
+            if (reading.getHistory() != null) {
+                weight += reading.getHistory().size() * SUMMARY_BYTES;
+            }
+        }
+        return weight;
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.test.weather.cache;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import com.test.weather.model.cache.WeatherReading;
+
+/**
+ * The `TieredReadingCache` class puts a persistent `MappedReadingStore` behind an in-memory cache.
+ * Lookups that miss the in-memory tier are answered from the file and promoted; writes go through to
+ * both tiers. On construction the in-memory tier is warmed with every reading in the file that is
+ * still within its TTL, so a restarted instance comes up warm.
+ *
+ * @author N Javeed
+ */
+public class TieredReadingCache extends AbstractValueAdaptingCache {
+
+    private final Cache memory;
+
+    private final MappedReadingStore store;
+
+    private final long ttlMillis;
+
+    public TieredReadingCache(Cache memory, MappedReadingStore store, long ttlMillis) {
+        super(false);
+        this.memory = memory;
+        this.store = store;
+        this.ttlMillis = ttlMillis;
+        warmUp();
+    }
+
+    @Override
+    public String getName() {
+        return memory.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return memory.getNativeCache();
+    }
+
+    /**
+     * @return The in-memory tier.
+     */
+    public Cache getMemoryCache() {
+        return memory;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Cache.ValueWrapper valueWrapper = memory.get(key);
+        if (valueWrapper != null) {
+            return valueWrapper.get();
+        }
+        WeatherReading reading = store.get(toZip(key));
+        if (reading == null || isExpired(reading, System.currentTimeMillis())) {
+            return null;
+        }
+        memory.put(key, reading);
+        return reading;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) value;
+        }
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        memory.put(key, value);
+        if (value instanceof WeatherReading reading) {
+            store.put(toZip(key), reading);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        memory.evict(key);
+        store.remove(toZip(key));
+    }
+
+    @Override
+    public void clear() {
+        memory.clear();
+        store.clear();
+    }
+
+    private void warmUp() {
+        long now = System.currentTimeMillis();
+        store.forEach(entry -> {
+            if (!isExpired(entry.reading(), now)) {
+                memory.put(entry.zip(), entry.reading());
+            }
+        });
+    }
+
+    private boolean isExpired(WeatherReading reading, long now) {
+        return now - reading.getFetchedAt() >= ttlMillis;
+    }
+
+    private static int toZip(Object key) {
+        if (key instanceof Number number) {
+            return number.intValue();
+        }
+        return Integer.parseInt(String.valueOf(key));
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.test.weather.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.utility.UnitConversion;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The `TtlPolicy` class decides how long each zip code's reading stays fresh. It follows how fast the
+ * temperature of a zip code has been changing, as an exponentially weighted average of the change per
+ * hour between consecutive readings, and gives each new reading the time it would take to drift by
+ * `weather.cache.ttl.tolerance-degrees` at that rate, within the configured minimum and maximum. A zip
+ * code seen for the first time gets `spring.cache.evict.time.minutes`, as does every zip code when
+ * `weather.cache.ttl.adaptive` is off.
+ *
+ * @author N Javeed
+ */
+@Component
+public class TtlPolicy {
+
+    private final boolean adaptive;
+
+    private final long defaultTtlMillis;
+
+    private final long minTtlMillis;
+
+    private final long maxTtlMillis;
+
+    private final double toleranceDegrees;
+
+    private final double smoothing;
+
+    private final Cache<Integer, Volatility> history;
+
+    private final DistributionSummary assignedTtl;
+
+    private final DoubleAdder upstreamCallsSaved = new DoubleAdder();
+
+    /**
+     * What is known about a zip code's last reading: its temperature in Celsius, when it was fetched,
+     * the smoothed rate of change in degrees per hour (NaN until two readings were seen), and the TTL
+     * it was given.
+     */
+    private record Volatility(double celsius, long fetchedAt, double degreesPerHour, long ttlMillis) {
+    }
+
+    public TtlPolicy(MeterRegistry registry,
+            @Value("${weather.cache.ttl.adaptive}") boolean adaptive,
+            @Value("${spring.cache.evict.time.minutes}") long defaultMinutes,
+            @Value("${weather.cache.ttl.min-minutes}") long minMinutes,
+            @Value("${weather.cache.ttl.max-minutes}") long maxMinutes,
+            @Value("${weather.cache.ttl.tolerance-degrees}") double toleranceDegrees,
+            @Value("${weather.cache.ttl.smoothing}") double smoothing,
+            @Value("${weather.cache.ttl.tracked-zips}") long trackedZips) {
+        this.adaptive = adaptive;
+        this.defaultTtlMillis = TimeUnit.MINUTES.toMillis(defaultMinutes);
+        this.minTtlMillis = TimeUnit.MINUTES.toMillis(adaptive ? minMinutes : defaultMinutes);
+        this.maxTtlMillis = TimeUnit.MINUTES.toMillis(adaptive ? maxMinutes : defaultMinutes);
+        this.toleranceDegrees = toleranceDegrees;
+        this.smoothing = smoothing;
+        this.history = Caffeine.newBuilder().maximumSize(trackedZips).build();
+        this.assignedTtl = DistributionSummary.builder("weather.cache.ttl")
+                .description("TTL given to readings as they are stored")
+                .baseUnit("seconds")
+                .publishPercentiles(0.05, 0.5, 0.95)
+                .register(registry);
+        Gauge.builder("weather.cache.ttl.upstream-calls-saved", upstreamCallsSaved, DoubleAdder::sum)
+                .description("Estimated upstream calls avoided compared with the fixed default TTL, "
+                        + "assuming every zip code is requested throughout its TTL; negative when volatile zip codes cost more")
+                .register(registry);
+    }
+
+    /**
+     * The function updates the zip code's volatility with a newly fetched reading and fixes the TTL
+     * the reading is served with. It must be called before the reading is put in the cache.
+     *
+     * @return The TTL of the reading in milliseconds.
+     */
+    public long record(int zipCode, WeatherReading reading) {
+        if (!adaptive) {
+            return defaultTtlMillis;
+        }
+        double celsius = UnitConversion.convert(reading.getCurrentTemperature(), reading.getUnit(), Unit.CELSIUS);
+        Volatility previous = history.getIfPresent(zipCode);
+        double rate = Double.NaN;
+        if (previous != null) {
+            rate = previous.degreesPerHour();
+            long elapsed = reading.getFetchedAt() - previous.fetchedAt();
+            if (elapsed >= TimeUnit.SECONDS.toMillis(1)) {
+                double observed = Math.abs(celsius - previous.celsius()) / (elapsed / 3_600_000.0);
+                rate = Double.isNaN(rate) ? observed : smoothing * observed + (1 - smoothing) * rate;
+            }
+        }
+        long ttl = ttlFor(rate);
+        history.put(zipCode, new Volatility(celsius, reading.getFetchedAt(), rate, ttl));
+        assignedTtl.record(ttl / 1000.0);
+        upstreamCallsSaved.add((double) ttl / defaultTtlMillis - 1);
+        return ttl;
+    }
+
+    /**
+     * @return The TTL in milliseconds of the zip code's current reading.
+     */
+    public long ttlMillis(int zipCode) {
+        if (!adaptive) {
+            return defaultTtlMillis;
+        }
+        Volatility volatility = history.getIfPresent(zipCode);
+        return volatility != null ? volatility.ttlMillis() : clamp(defaultTtlMillis);
+    }
+
+    /**
+     * @return The longest TTL any reading can be given, which bounds how long a cache tier has to
+     * keep a reading around.
+     */
+    public long getMaxTtlMillis() {
+        return maxTtlMillis;
+    }
+
+    private long ttlFor(double degreesPerHour) {
+        if (Double.isNaN(degreesPerHour)) {
+            return clamp(defaultTtlMillis);
+        }
+        if (degreesPerHour <= 0) {
+            return maxTtlMillis;
+        }
+        return clamp((long) (toleranceDegrees / degreesPerHour * 3_600_000));
+    }
+
+    private long clamp(long ttlMillis) {
+        return Math.max(minTtlMillis, Math.min(maxTtlMillis, ttlMillis));
+    }
+
+}
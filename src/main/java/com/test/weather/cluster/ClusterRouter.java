@@ -0,0 +1,215 @@
+package com.test.weather.cluster;
+
+import static com.test.weather.utility.Constants.CLUSTER_TOKEN;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.weather.model.cache.WeatherReading;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The `ClusterRouter` class decides which node of the cluster owns a zip code and asks the owner for
+ * its reading. Ownership comes from a `ConsistentHashRing` over `weather.cluster.peers`, which has to
+ * list the same nodes in every instance, this one included as `weather.cluster.self`. Requests to a
+ * peer carry the shared `weather.cluster.token`, without which a node refuses them.
+ * 
+ * A peer that cannot be reached, or does not answer within `weather.cluster.peer-timeout-ms`, is
+ * skipped for `weather.cluster.peer-backoff-ms`; meanwhile the zip codes it owns are served locally,
+ * so with every peer down the instance behaves as if cluster mode were off. Hot zip codes fetched
+ * from an owner are kept in a small local replica for `weather.cluster.replica-ttl-seconds`.
+ *
+ * @author N Javeed
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "weather.cluster.enabled", havingValue = "true")
+public class ClusterRouter {
+
+    public static final String READINGS_PATH = "/weather-forecast/internal/v1/readings/";
+
+    public static final String INTERNAL_PATHS = "/weather-forecast/internal/**";
+
+    private final String self;
+
+    private final ConsistentHashRing ring;
+
+    private final HttpClient client;
+
+    private final ObjectMapper mapper;
+
+    private final String contextPath;
+
+    private final String token;
+
+    private final Duration peerTimeout;
+
+    private final long backoffMillis;
+
+    private final Map<String, Long> unavailableUntil = new ConcurrentHashMap<>();
+
+    private final Cache<Integer, WeatherReading> replicas;
+
+    private final Counter peerFetches;
+
+    private final Counter peerFailures;
+
+    public ClusterRouter(ObjectMapper mapper, MeterRegistry registry,
+            @Value("${weather.cluster.self}") String self,
+            @Value("${weather.cluster.peers}") List<String> peers,
+            @Value("${weather.cluster.virtual-nodes}") int virtualNodes,
+            @Value("${weather.cluster.peer-timeout-ms}") long peerTimeoutMs,
+            @Value("${weather.cluster.peer-backoff-ms}") long backoffMillis,
+            @Value("${weather.cluster.replica-ttl-seconds}") long replicaTtlSeconds,
+            @Value("${weather.cluster.replica-max-size}") long replicaMaxSize,
+            @Value("${weather.cluster.token}") String token,
+            @Value("${server.servlet.context-path:}") String contextPath) {
+        if (!peers.contains(self)) {
+            throw new IllegalStateException("weather.cluster.peers must include weather.cluster.self (" + self + ")");
+        }
+        if (peers.size() > 1 && token.isBlank()) {
+            throw new IllegalStateException("weather.cluster.token must be set when weather.cluster.peers lists other nodes");
+        }
+        this.token = token;
+        this.self = self;
+        this.ring = new ConsistentHashRing(peers, virtualNodes);
+        this.mapper = mapper;
+        this.contextPath = contextPath;
+        this.peerTimeout = Duration.ofMillis(peerTimeoutMs);
+        this.backoffMillis = backoffMillis;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(peerTimeout)
+                .build();
+        this.replicas = Caffeine.newBuilder()
+                .expireAfterWrite(replicaTtlSeconds, TimeUnit.SECONDS)
+                .maximumSize(replicaMaxSize)
+                .build();
+        this.peerFetches = Counter.builder("weather.cluster.peer.fetches")
+                .description("Readings requested from the owning peer instead of the external API")
+                .register(registry);
+        this.peerFailures = Counter.builder("weather.cluster.peer.failures")
+                .description("Peer requests that failed and were served locally instead")
+                .register(registry);
+    }
+
+    /**
+     * @return The base URL of the node owning the zip code when that is another node believed to be
+     * reachable, or `null` when this node should serve the zip code itself.
+     */
+    public String remoteOwnerOf(int zipCode) {
+        String owner = ring.ownerOf(zipCode);
+        if (owner.equals(self)) {
+            return null;
+        }
+        Long until = unavailableUntil.get(owner);
+        if (until != null) {
+            if (System.currentTimeMillis() < until) {
+                return null;
+            }
+            unavailableUntil.remove(owner, until);
+        }
+        return owner;
+    }
+
+    /**
+     * The function asks the owner for its reading of the zip code.
+     *
+     * @return The owner's reading, or `null` when the owner failed and the caller should serve the
+     * zip code locally.
+     */
+    public PeerReading fetch(String owner, int zipCode) {
+        peerFetches.increment();
+        try {
+            HttpResponse<byte[]> response = client.send(request(owner, zipCode), HttpResponse.BodyHandlers.ofByteArray());
+            return decode(owner, response);
+        } catch (IOException e) {
+            markUnavailable(owner, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * The function is the non-blocking form of `fetch`.
+     *
+     * @return A future completed with the owner's reading, or with `null` when the owner failed.
+     */
+    public CompletableFuture<PeerReading> fetchAsync(String owner, int zipCode) {
+        peerFetches.increment();
+        return client.sendAsync(request(owner, zipCode), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        markUnavailable(owner, e);
+                        return null;
+                    }
+                    return decode(owner, response);
+                });
+    }
+
+    /**
+     * @return The locally replicated reading of a zip code owned by another node, or `null`.
+     */
+    public WeatherReading getReplica(int zipCode) {
+        return replicas.getIfPresent(zipCode);
+    }
+
+    /**
+     * Keeps a hot zip code's reading from its owner locally for a short time.
+     */
+    public void replicate(int zipCode, WeatherReading reading) {
+        replicas.put(zipCode, reading);
+    }
+
+    private HttpRequest request(String owner, int zipCode) {
+        return HttpRequest.newBuilder(URI.create(owner + contextPath + READINGS_PATH + zipCode))
+                .timeout(peerTimeout)
+                .header(CLUSTER_TOKEN, token)
+                .GET()
+                .build();
+    }
+
+    private PeerReading decode(String owner, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            // The owner is up but could not produce a reading; it is not marked unavailable
+            peerFailures.increment();
+            return null;
+        }
+        try {
+            return mapper.readValue(response.body(), PeerReading.class);
+        } catch (IOException e) {
+            peerFailures.increment();
+            log.warn("Unreadable reading from peer {}", owner, e);
+            return null;
+        }
+    }
+
+    private void markUnavailable(String owner, Throwable cause) {
+        peerFailures.increment();
+        if (unavailableUntil.put(owner, System.currentTimeMillis() + backoffMillis) == null) {
+            log.warn("Peer {} unavailable, serving its zip codes locally for {} ms: {}", owner, backoffMillis, cause.toString());
+        }
+    }
+
+}
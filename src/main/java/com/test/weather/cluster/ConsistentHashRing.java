@@ -0,0 +1,72 @@
+package com.test.weather.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The `ConsistentHashRing` class assigns every zip code to one node of a fixed node list. Each node
+ * is placed on a 64-bit ring at `virtualNodes` pseudo-random points and a zip code belongs to the
+ * first point at or after its own hash. With enough virtual nodes the zip codes spread evenly, and
+ * adding or removing a node only moves the zip codes that node gains or loses.
+ *
+ * @author N Javeed
+ */
+public class ConsistentHashRing {
+
+    private final long[] points;
+
+    private final String[] owners;
+
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one node and one virtual node per node");
+        }
+        int size = nodes.size() * virtualNodes;
+        long[][] entries = new long[size][];
+        int i = 0;
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                entries[i++] = new long[] { hash(nodes.get(node) + "#" + replica), node };
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = nodes.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * @return The node that owns the zip code.
+     */
+    public String ownerOf(int zipCode) {
+        int index = Arrays.binarySearch(points, mix(zipCode));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    private static long hash(String value) {
+        // FNV-1a, then a finalizer so that similar node names land far apart
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.test.weather.cluster;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * A reading as it is exchanged between cluster nodes, with how the owner served it, so a reading the
+ * owner could only serve stale is not passed on as fresh. The status is `null` from nodes that do not
+ * send it.
+ *
+ * @author N Javeed
+ */
+public record PeerReading(double currentTemperature, double lowTemperature, double highTemperature, Unit unit,
+        long fetchedAt, CacheStatus status) {
+
+    public static PeerReading of(WeatherReading reading, CacheStatus status) {
+        return new PeerReading(reading.getCurrentTemperature(), reading.getLowTemperature(),
+                reading.getHighTemperature(), reading.getUnit(), reading.getFetchedAt(), status);
+    }
+
+    public WeatherReading toReading() {
+        return WeatherReading.builder()
+                .currentTemperature(currentTemperature)
+                .lowTemperature(lowTemperature)
+                .highTemperature(highTemperature)
+                .unit(unit)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.test.weather.configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * The BatchConfiguration class creates the executor used to fetch cache misses of a batch forecast
+ * request in parallel. Its pool size bounds how many upstream calls batches can have in flight at
+ * once.
+ * 
+ * @author N Javeed
+ */
+@Configuration
+public class BatchConfiguration {
+
+    public static final String FORECAST_FETCH_EXECUTOR = "forecastFetchExecutor";
+
+    @Value("${weather.batch.max-concurrency}")
+    private int maxConcurrency;
+
+    /**
+     * The function creates a fixed-size executor shared by all batch requests for fetching cache
+     * misses from the external API.
+     * 
+     * @return An ExecutorService with `weather.batch.max-concurrency` threads.
+     */
+    @Bean(name = FORECAST_FETCH_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService forecastFetchExecutor() {
+        return Executors.newFixedThreadPool(maxConcurrency, new CustomizableThreadFactory("forecast-fetch-"));
+    }
+
+}
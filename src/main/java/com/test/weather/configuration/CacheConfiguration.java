@@ -1,19 +1,32 @@
 package com.test.weather.configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.test.weather.cache.CompactReadingCache;
+import com.test.weather.cache.MappedReadingStore;
+import com.test.weather.cache.ReadingExpiry;
+import com.test.weather.cache.ReadingWeigher;
+import com.test.weather.cache.TieredReadingCache;
+import com.test.weather.cache.TtlPolicy;
+
 /**
- * The CacheConfiguration class in Java creates a cache manager using ConcurrentMapCacheManager for a
- * cache named "weatherCache".
+ * The CacheConfiguration class in Java creates a cache manager for a cache named "weatherCache",
+ * backed by Caffeine or the compact primitive store, optionally with a persistent second tier.
  * 
  * @author N Javeed
  */
@@ -21,22 +34,78 @@ import org.springframework.context.annotation.Configuration;
 @EnableCaching
 public class CacheConfiguration {
 
-    @Value("${spring.cache.evict.time.minutes}")
-    private int minutes;
+    private static final String WEATHER_CACHE = "weatherCache";
+
+    @Value("${weather.cache.refresh-ahead.enabled}")
+    private boolean refreshAhead;
+
+    @Value("${weather.cache.refresh-ahead.grace-minutes}")
+    private int graceMinutes;
+
+    @Value("${weather.cache.store}")
+    private String store;
+
+    @Value("${weather.cache.compact.initial-capacity}")
+    private int compactInitialCapacity;
+
+    @Value("${weather.cache.compact.max-entries}")
+    private int compactMaxEntries;
+
+    @Value("${weather.cache.max-weight-bytes}")
+    private long maxWeightBytes;
 
     /**
-     * The function creates a cache manager using ConcurrentMapCacheManager for a cache named
-     * "weatherCache" in Java.
+     * The function creates the cache manager holding the "weatherCache" cache. Caffeine expires each
+     * entry at the TTL the `TtlPolicy` gave it and evicts by weight once the entries' estimated
+     * footprint reaches `weather.cache.max-weight-bytes`. With refresh-ahead enabled, entries are kept
+     * for the grace window past their TTL so a stale value can still be served while it is refreshed.
+     * Setting `weather.cache.store=compact` swaps Caffeine for the primitive-keyed
+     * `CompactReadingCache`, bounded by `weather.cache.compact.max-entries` zip codes instead of by
+     * weight, and when a `MappedReadingStore` is configured it is put behind the in-memory cache as a
+     * persistent second tier.
      * 
-     * @return A CacheManager bean is being returned, specifically a ConcurrentMapCacheManager bean
-     * with the name "weatherCache".
+     * @param persistentStore The `persistentStore` parameter provides the optional second tier.
+     * @param ttlPolicy The `ttlPolicy` parameter decides each entry's TTL. The compact store and the
+     * persistent tier only keep entries for the longest TTL and leave freshness to the service.
+     * @return A CacheManager bean holding the "weatherCache" cache.
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("weatherCache");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-            .expireAfterWrite(minutes, TimeUnit.MINUTES));
+    public CacheManager cacheManager(ObjectProvider<MappedReadingStore> persistentStore, TtlPolicy ttlPolicy) {
+        long graceMillis = refreshAhead ? TimeUnit.MINUTES.toMillis(graceMinutes) : 0;
+        long expiryMillis = ttlPolicy.getMaxTtlMillis() + graceMillis;
+        Cache cache;
+        if ("compact".equalsIgnoreCase(store)) {
+            cache = new CompactReadingCache(WEATHER_CACHE, expiryMillis, compactInitialCapacity, compactMaxEntries);
+        } else {
+            cache = new CaffeineCache(WEATHER_CACHE, Caffeine.newBuilder()
+                .expireAfter(new ReadingExpiry(ttlPolicy, graceMillis))
+                .maximumWeight(maxWeightBytes)
+                .weigher(new ReadingWeigher())
+                .recordStats()
+                .build());
+        }
+        MappedReadingStore l2 = persistentStore.getIfAvailable();
+        if (l2 != null) {
+            cache = new TieredReadingCache(cache, l2, expiryMillis);
+        }
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
         return cacheManager;
     }
 
-}
\ No newline at end of file
+    /**
+     * The function opens the memory-mapped file used as the persistent second cache tier. It is only
+     * created when `weather.cache.l2.enabled` is true.
+     * 
+     * @param path The `path` parameter is the location of the backing file.
+     * @param slots The `slots` parameter is the number of fixed-size records in the file.
+     * @return A MappedReadingStore bean, closed and flushed on shutdown.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "weather.cache.l2.enabled", havingValue = "true")
+    public MappedReadingStore persistentReadingStore(@Value("${weather.cache.l2.path}") String path,
+            @Value("${weather.cache.l2.slots}") int slots) throws IOException {
+        return new MappedReadingStore(Path.of(path), slots);
+    }
+
+}
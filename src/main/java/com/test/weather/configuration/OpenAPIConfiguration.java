@@ -2,12 +2,17 @@ package com.test.weather.configuration;
 
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.servers.Server;
+import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.media.Schema;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import static com.test.weather.utility.Constants.APPLICATION_FORECAST_RECORD_VALUE;
+import static com.test.weather.utility.Constants.APPLICATION_SMILE_VALUE;
+
 /**
  * The OpenAPIConfiguration class sets up OpenAPI documentation for a Weather Forecast service with
  * server URL specified.
@@ -22,23 +27,37 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class OpenAPIConfiguration {
 
+    public static final String FORECAST_RECORD_SCHEMA = "#/components/schemas/ForecastRecord";
+
     /**
      * The function creates and returns an OpenAPI object for a Weather Forecast service with specific
      * information.
      * 
      * @return An OpenAPI object is being returned. It contains information about a Weather Forecast
      * service with details such as title, description, version, and contact information for "Javeed
-     * Inc" with the email "meetjaveed11@gmail.com".
+     * Inc" with the email "meetjaveed11@gmail.com". It also describes the fixed-layout binary record
+     * `/v1` can answer with, which has no Java model for springdoc to derive a schema from.
      */
     @Bean
     public OpenAPI parsingOpenAPI() {
         return new OpenAPI()
                 .info(new Info().title("Weather Forecast")
-                        .description("Weather Forecast Service")
+                        .description("Weather Forecast Service. `/v1` answers in JSON by default, or in CBOR, Smile "
+                                + "or a fixed-layout binary record when the `Accept` header asks for "
+                                + "`application/cbor`, `" + APPLICATION_SMILE_VALUE + "` or `"
+                                + APPLICATION_FORECAST_RECORD_VALUE + "`.")
                         .version("v1.0.0")
                         .contact(
                                 new Contact().name("Javeed Inc")
-                                        .email("meetjaveed11@gmail.com")));
+                                        .email("meetjaveed11@gmail.com")))
+                .components(new Components()
+                        .addSchemas("ForecastRecord", new Schema<byte[]>()
+                                .type("string")
+                                .format("binary")
+                                .description("34 big-endian bytes: version (1 byte, 1), unit (1 byte, 'C' or 'F'), "
+                                        + "current, low and high temperature (IEEE 754 doubles), fetched at "
+                                        + "(epoch milliseconds, 8 bytes). Only the current reading is carried: there is no "
+                                        + "`nextForecast` or daily history.")));
     }
 
 }
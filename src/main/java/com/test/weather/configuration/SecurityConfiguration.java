@@ -1,19 +1,34 @@
 package com.test.weather.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import static com.test.weather.utility.Constants.CLUSTER_TOKEN;
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.test.weather.cluster.ClusterRouter;
+import com.test.weather.ratelimit.RateLimit;
+import com.test.weather.ratelimit.RateLimitFilter;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * The SecurityConfig class configures the security filter chain for a Java application, allowing
@@ -26,6 +41,24 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfiguration {
 
+    @Value("${weather.rate-limit.enabled}")
+    private boolean rateLimitEnabled;
+
+    @Value("#{${weather.rate-limit.routes}}")
+    private Map<String, String> routeLimits;
+
+    @Value("${weather.rate-limit.miss-budget}")
+    private String missBudget;
+
+    @Value("${weather.rate-limit.max-clients}")
+    private long maxClients;
+
+    @Value("${weather.rate-limit.api-keys}")
+    private Set<String> apiKeys;
+
+    @Value("${weather.cluster.token}")
+    private String clusterToken;
+
     /**
      * The function configures CORS (Cross-Origin Resource Sharing) for a Java application, allowing requests from any origin, with credentials, and allowing all headers and methods.
      * 
@@ -45,7 +78,9 @@ public class SecurityConfiguration {
 
     /**
      * The function configures the security filter chain for a Java application, allowing access to
-     * certain endpoints and enabling OAuth2 resource server with JWT authentication.
+     * certain endpoints and enabling OAuth2 resource server with JWT authentication. The internal
+     * endpoints other cluster nodes call are only open to requests carrying `weather.cluster.token`.
+     * When `weather.rate-limit.enabled` is set, clients are throttled before authorization.
      * 
      * @param http The `http` parameter is an instance of `HttpSecurity`, which is a class provided by
      * Spring Security. It allows you to configure security settings for your application.
@@ -59,13 +94,41 @@ public class SecurityConfiguration {
                         .requestMatchers("/swagger-ui/**").permitAll()
                         .requestMatchers("/webjars/**").permitAll()
                         .requestMatchers("/swagger-resources/**").permitAll()
+                        .requestMatchers(ClusterRouter.INTERNAL_PATHS)
+                                .access((authentication, context) -> new AuthorizationDecision(isPeer(context.getRequest())))
                         .anyRequest().permitAll()
 		        );
+        if (rateLimitEnabled) {
+            http.addFilterBefore(rateLimitFilter(), AuthorizationFilter.class);
+        }
 			
         return http.build();
     }
     
 
+    /**
+     * The function tells whether a request comes from another cluster node, by comparing its
+     * `X-Cluster-Token` header with `weather.cluster.token` in constant time. Nothing is a peer while
+     * no token is configured.
+     */
+    private boolean isPeer(HttpServletRequest request) {
+        String token = request.getHeader(CLUSTER_TOKEN);
+        return !clusterToken.isEmpty() && token != null
+                && MessageDigest.isEqual(clusterToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The function builds the rate limiting filter. It is deliberately not a bean, so that it only
+     * runs inside the security filter chain and is not registered a second time as a servlet filter.
+     * 
+     * @return A `RateLimitFilter` with the configured per-route limits and miss budget.
+     */
+    private RateLimitFilter rateLimitFilter() {
+        Map<String, RateLimit> limits = new LinkedHashMap<>();
+        routeLimits.forEach((route, limit) -> limits.put(route, RateLimit.parse(limit)));
+        return new RateLimitFilter(limits, RateLimit.parse(missBudget), maxClients, apiKeys);
+    }
+
     /**
      * The function `webSecurityCustomizer()` configures the web security to ignore certain request
      * matchers for Swagger UI and API documentation.
@@ -0,0 +1,44 @@
+package com.test.weather.configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.test.weather.series.ReadingSeries;
+import com.test.weather.series.ReadingSeriesLog;
+
+/**
+ * The SeriesConfiguration class creates the time series every fetched reading is recorded in, when
+ * `weather.series.enabled` is true.
+ *
+ * @author N Javeed
+ */
+@Configuration
+public class SeriesConfiguration {
+
+    /**
+     * The function opens the memory-mapped log under `weather.series.path` and rebuilds the per-zip
+     * index and daily rollups from it.
+     *
+     * @param path The `path` parameter is the directory holding the segment files.
+     * @param segmentRows The `segmentRows` parameter is the number of readings per segment file.
+     * @param maxSegments The `maxSegments` parameter is the number of segments kept before the oldest
+     * is deleted.
+     * @param rollupDays The `rollupDays` parameter is the number of days of rollups kept per zip code.
+     * @return A ReadingSeries bean, flushed and closed on shutdown.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "weather.series.enabled", havingValue = "true")
+    public ReadingSeries readingSeries(@Value("${weather.series.path}") String path,
+            @Value("${weather.series.segment-rows}") int segmentRows,
+            @Value("${weather.series.max-segments}") int maxSegments,
+            @Value("${weather.series.rollup-days}") int rollupDays) throws IOException {
+        return new ReadingSeries(new ReadingSeriesLog(Path.of(path), segmentRows, maxSegments), rollupDays, ZoneId.systemDefault());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.test.weather.encoding;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+/**
+ * The `ForecastEncoder` class turns a canonical reading into the body sent to clients, in JSON or in
+ * one of the binary formats a client can ask for with `Accept`. Bodies are kept on the reading once
+ * encoded, so a cache hit writes the stored bytes instead of serializing the response again.
+ *
+ * @author N Javeed
+ */
+@Component
+public class ForecastEncoder {
+
+    private final Map<ForecastFormat, ObjectMapper> mappers = new EnumMap<>(ForecastFormat.class);
+
+    private final Map<ForecastFormat, byte[]> emptyBodies = new EnumMap<>(ForecastFormat.class);
+
+    /**
+     * @param mapper The `mapper` parameter is the application's JSON `ObjectMapper`.
+     * @param mapperBuilder The `mapperBuilder` parameter carries the application's Jackson settings,
+     * so the CBOR and Smile mappers serialize the response the same way as JSON.
+     */
+    public ForecastEncoder(ObjectMapper mapper, Jackson2ObjectMapperBuilder mapperBuilder) {
+        mappers.put(ForecastFormat.JSON, mapper);
+        mappers.put(ForecastFormat.CBOR, mapperBuilder.factory(new CBORFactory()).build());
+        mappers.put(ForecastFormat.SMILE, mapperBuilder.factory(new SmileFactory()).build());
+        mappers.forEach((format, formatMapper) -> {
+            try {
+                emptyBodies.put(format, formatMapper.writeValueAsBytes(WeatherAPIResponse.builder().build()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Error encoding empty WeatherAPIResponse as " + format, e);
+            }
+        });
+        // A record has no empty form; errors are carried by the headers alone
+        emptyBodies.put(ForecastFormat.RECORD, new byte[0]);
+    }
+
+    /**
+     * @return The body for the reading in the requested unit and format, encoded on first use.
+     */
+    public byte[] encode(WeatherReading reading, Unit unit, ForecastFormat format) throws JsonProcessingException {
+        byte[] body = reading.getEncoded(format, unit);
+        if (body == null) {
+            body = format == ForecastFormat.RECORD
+                    ? ForecastRecordCodec.encode(reading, unit)
+                    : mappers.get(format).writeValueAsBytes(reading.toResponse(unit));
+            reading.setEncoded(format, unit, body);
+        }
+        return body;
+    }
+
+    /**
+     * @return The JSON body for the reading in the requested unit, encoded on first use.
+     */
+    public byte[] json(WeatherReading reading, Unit unit) throws JsonProcessingException {
+        return encode(reading, unit, ForecastFormat.JSON);
+    }
+
+    /**
+     * Encodes the reading as JSON in every unit, so the work is done once when it is fetched rather
+     * than on the first hits. Binary bodies are left to the first request for them, so readings no
+     * consumer asks for in binary do not carry them.
+     */
+    public void encodeAll(WeatherReading reading) throws JsonProcessingException {
+        for (Unit unit : Unit.values()) {
+            json(reading, unit);
+        }
+    }
+
+    /**
+     * @return The body of an empty response in the format, sent alongside error headers.
+     */
+    public byte[] empty(ForecastFormat format) {
+        return emptyBodies.get(format);
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.test.weather.encoding;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+/**
+ * The `ForecastRecordCodec` class reads and writes the fixed-layout binary forecast served as
+ * `application/vnd.weather.forecast-record`. A record is 34 big-endian bytes:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  version, currently 1
+ *      1     1  unit, 'C' or 'F'
+ *      2     8  current temperature, IEEE 754 double
+ *     10     8  low temperature
+ *     18     8  high temperature
+ *     26     8  fetched at, epoch milliseconds
+ * </pre>
+ *
+ * Unlike the JSON body it carries the fetch time as an instant rather than a formatted local time,
+ * and holds the current reading only: `nextForecast` and the daily history it lists are not part of
+ * the record.
+ *
+ * @author N Javeed
+ */
+public final class ForecastRecordCodec {
+
+    public static final byte VERSION = 1;
+
+    public static final int LENGTH = 34;
+
+    private ForecastRecordCodec() {
+    }
+
+    /**
+     * @return The record for the reading in the requested unit.
+     */
+    public static byte[] encode(WeatherReading reading, Unit unit) {
+        WeatherAPIResponse response = reading.toResponse(unit);
+        return ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .put((byte) unit.name().charAt(0))
+                .putDouble(response.getCurrentTemperature())
+                .putDouble(response.getLowTemperature())
+                .putDouble(response.getHighTemperature())
+                .putLong(reading.getFetchedAt())
+                .array();
+    }
+
+    /**
+     * The function decodes a record into the current values of the response the JSON body would have
+     * carried, with `lastUpdated` rendered in this JVM's time zone. `nextForecast` is left unset, as
+     * the record carries no history.
+     *
+     * @param record The `record` parameter is a body produced by `encode`.
+     * @return The decoded `WeatherAPIResponse`.
+     */
+    public static WeatherAPIResponse decode(byte[] record) {
+        if (record.length != LENGTH) {
+            throw new IllegalArgumentException("Forecast record must be " + LENGTH + " bytes, was " + record.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported forecast record version " + version);
+        }
+        Unit unit = switch (buffer.get()) {
+            case 'C' -> Unit.CELSIUS;
+            case 'F' -> Unit.FAHRENHEIT;
+            default -> throw new IllegalArgumentException("Unknown unit in forecast record");
+        };
+        return WeatherAPIResponse.builder()
+                .currentTemperature(buffer.getDouble())
+                .lowTemperature(buffer.getDouble())
+                .highTemperature(buffer.getDouble())
+                .temperatureUnit(unit)
+                .lastUpdated(String.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneId.systemDefault())))
+                .build();
+    }
+
+}
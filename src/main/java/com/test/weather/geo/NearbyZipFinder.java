@@ -0,0 +1,94 @@
+package com.test.weather.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * The `NearbyZipFinder` class answers which zip codes lie close to a given zip code, using the
+ * zip code locations in `weather.geo-fallback.dataset` and a `ZipKdTree` built over them at startup.
+ * The dataset is a CSV file with `zip,latitude,longitude` rows; a header row and lines starting with
+ * `#` are skipped. The neighbours of a zip code never change, so they are computed for every zip code
+ * in the dataset at startup; zip codes outside the dataset have none and are not remembered.
+ *
+ * @author N Javeed
+ */
+@Component
+@ConditionalOnProperty(name = "weather.geo-fallback.enabled", havingValue = "true")
+public class NearbyZipFinder {
+
+    private static final int[] NONE = new int[0];
+
+    private final ZipKdTree tree;
+
+    private final Map<Integer, int[]> neighbours = new HashMap<>();
+
+    public NearbyZipFinder(@Value("${weather.geo-fallback.dataset}") Resource dataset,
+            @Value("${weather.geo-fallback.radius-km}") double radiusKm,
+            @Value("${weather.geo-fallback.max-candidates}") int maxCandidates) throws IOException {
+        Map<Integer, double[]> locations = load(dataset);
+
+        int[] zipCodes = new int[locations.size()];
+        double[] latitudes = new double[zipCodes.length];
+        double[] longitudes = new double[zipCodes.length];
+        int i = 0;
+        for (Map.Entry<Integer, double[]> location : locations.entrySet()) {
+            zipCodes[i] = location.getKey();
+            latitudes[i] = location.getValue()[0];
+            longitudes[i] = location.getValue()[1];
+            i++;
+        }
+        this.tree = new ZipKdTree(zipCodes, latitudes, longitudes);
+
+        // Written only here, so the map is safely published by the final field and read without locking
+        for (i = 0; i < zipCodes.length; i++) {
+            int zipCode = zipCodes[i];
+            int[] nearest = tree.nearest(latitudes[i], longitudes[i], radiusKm, maxCandidates + 1);
+            neighbours.put(zipCode, Arrays.stream(nearest).filter(zip -> zip != zipCode).limit(maxCandidates).toArray());
+        }
+    }
+
+    /**
+     * The function lists the zip codes within `weather.geo-fallback.radius-km` of the given one.
+     *
+     * @return At most `weather.geo-fallback.max-candidates` zip codes ordered by distance, excluding
+     * the zip code itself; empty when the zip code is not in the dataset.
+     */
+    public int[] nearby(int zipCode) {
+        return neighbours.getOrDefault(zipCode, NONE);
+    }
+
+    public int size() {
+        return tree.size();
+    }
+
+    private static Map<Integer, double[]> load(Resource dataset) throws IOException {
+        Map<Integer, double[]> locations = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    throw new IOException("Malformed zip location: " + line);
+                }
+                locations.put(Integer.parseInt(fields[0].trim()),
+                        new double[] { Double.parseDouble(fields[1].trim()), Double.parseDouble(fields[2].trim()) });
+            }
+        }
+        return locations;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.test.weather.geo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * The `ZipKdTree` class is a static 3-d tree over zip code locations. Each location is stored as a
+ * point on the unit sphere, so the straight-line distance between two points grows with the
+ * great-circle distance and a nearest-neighbour search needs no trigonometry per node. The tree is
+ * implicit: points are laid out in parallel arrays so that the middle of every range is the node
+ * splitting it.
+ *
+ * @author N Javeed
+ */
+public class ZipKdTree {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final int[] zips;
+
+    private final double[][] coordinates;
+
+    public ZipKdTree(int[] zipCodes, double[] latitudes, double[] longitudes) {
+        int size = zipCodes.length;
+        double[][] points = new double[size][];
+        for (int i = 0; i < size; i++) {
+            points[i] = toPoint(latitudes[i], longitudes[i]);
+        }
+        Integer[] order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+        build(order, points, 0, size, 0);
+
+        this.zips = new int[size];
+        this.coordinates = new double[3][size];
+        for (int i = 0; i < size; i++) {
+            zips[i] = zipCodes[order[i]];
+            for (int axis = 0; axis < 3; axis++) {
+                coordinates[axis][i] = points[order[i]][axis];
+            }
+        }
+    }
+
+    /**
+     * The function finds the zip codes closest to a location, nearest first.
+     *
+     * @param radiusKm The `radiusKm` parameter is the great-circle distance beyond which zip codes are
+     * ignored.
+     * @param limit The `limit` parameter caps how many zip codes are returned.
+     * @return Up to `limit` zip codes within `radiusKm`, ordered by distance. The zip code at the
+     * location itself, if any, is included.
+     */
+    public int[] nearest(double latitude, double longitude, double radiusKm, int limit) {
+        double chord = 2 * Math.sin(Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI) / 2);
+        Search search = new Search(toPoint(latitude, longitude), chord * chord, limit);
+        search.visit(0, zips.length, 0);
+        return Arrays.copyOf(search.found, search.count);
+    }
+
+    public int size() {
+        return zips.length;
+    }
+
+    private static void build(Integer[] order, double[][] points, int from, int to, int depth) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Arrays.sort(order, from, to, Comparator.comparingDouble(i -> points[i][axis]));
+        int mid = (from + to) >>> 1;
+        build(order, points, from, mid, depth + 1);
+        build(order, points, mid + 1, to, depth + 1);
+    }
+
+    private static double[] toPoint(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    /**
+     * A bounded nearest-neighbour search. The best matches are kept sorted by distance, which is cheap
+     * for the handful of neighbours a lookup asks for.
+     */
+    private class Search {
+
+        private final double[] query;
+
+        private final int[] found;
+
+        private final double[] distances;
+
+        private final double maxDistance;
+
+        private int count;
+
+        Search(double[] query, double maxDistance, int limit) {
+            this.query = query;
+            this.maxDistance = maxDistance;
+            this.found = new int[limit];
+            this.distances = new double[limit];
+        }
+
+        void visit(int from, int to, int depth) {
+            if (from >= to) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            int axis = depth % 3;
+            offer(mid);
+            double delta = query[axis] - coordinates[axis][mid];
+            if (delta < 0) {
+                visit(from, mid, depth + 1);
+                if (delta * delta <= bound()) {
+                    visit(mid + 1, to, depth + 1);
+                }
+            } else {
+                visit(mid + 1, to, depth + 1);
+                if (delta * delta <= bound()) {
+                    visit(from, mid, depth + 1);
+                }
+            }
+        }
+
+        private double bound() {
+            return count == found.length ? distances[count - 1] : maxDistance;
+        }
+
+        private void offer(int node) {
+            double dx = query[0] - coordinates[0][node];
+            double dy = query[1] - coordinates[1][node];
+            double dz = query[2] - coordinates[2][node];
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance > bound() || found.length == 0) {
+                return;
+            }
+            int i = count < found.length ? count++ : count - 1;
+            while (i > 0 && distances[i - 1] > distance) {
+                distances[i] = distances[i - 1];
+                found[i] = found[i - 1];
+                i--;
+            }
+            distances[i] = distance;
+            found[i] = zips[node];
+        }
+
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.test.weather.handler.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.test.weather.cluster.PeerReading;
+
+import io.swagger.v3.oas.annotations.Hidden;
+
+@Hidden
+@RestController
+@RequestMapping("/weather-forecast/internal")
+public interface ClusterReadingAPI {
+
+    @GetMapping("/v1/readings/{zipCode}")
+    ResponseEntity<PeerReading> getReading(@PathVariable int zipCode);
+
+}
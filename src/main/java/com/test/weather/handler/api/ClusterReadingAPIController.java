@@ -0,0 +1,56 @@
+package com.test.weather.handler.api;
+
+import static com.test.weather.utility.Constants.ERROR_MESSAGE;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.test.weather.cluster.PeerReading;
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.sao.UpstreamUnavailableException;
+import com.test.weather.service.WeatherForecastService;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * This class is the REST controller other cluster nodes call to get the reading of a zip code this
+ * node owns. It only exists when `weather.cluster.enabled` is set, and the security filter chain only
+ * lets through requests carrying the cluster's `X-Cluster-Token`.
+ * 
+ * @author N Javeed
+ */
+@RestController
+@AllArgsConstructor
+@ConditionalOnProperty(name = "weather.cluster.enabled", havingValue = "true")
+public class ClusterReadingAPIController implements ClusterReadingAPI {
+
+    private final WeatherForecastService weatherForecastService;
+
+    /**
+     * This Java function answers a peer with this node's reading of the zip code, served from its
+     * cache or fetched from the external API, but never forwarded to another node.
+     * 
+     * @param zipCode The `zipCode` parameter is the zip code the peer needs.
+     * @return A `ResponseEntity` containing the reading in the external API's unit and how it was
+     * served, or 503 when the external API is unavailable to this node too.
+     */
+    @Override
+    public ResponseEntity<PeerReading> getReading(@PathVariable int zipCode) {
+        try {
+            // The unit only shapes the response, which is not used here
+            ForecastResult result = weatherForecastService.getLocalForecastResult(zipCode, Unit.CELSIUS);
+            return ResponseEntity.ok(PeerReading.of(result.getReading(), result.getStatus()));
+        } catch (Exception e) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(ERROR_MESSAGE, e.getLocalizedMessage());
+            HttpStatus status = e instanceof UpstreamUnavailableException ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.INTERNAL_SERVER_ERROR;
+            return new ResponseEntity<>(headers, status);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.test.weather.handler.api;
+
+import java.time.Instant;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.HistoryResponse;
+
+@RestController
+@RequestMapping("/weather-forecast")
+public interface ForecastHistoryAPI {
+
+    @GetMapping("/v1/history")
+    ResponseEntity<HistoryResponse> getHistory(@RequestParam int zipCode, @RequestParam Unit unit,
+            @RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to);
+
+}
@@ -0,0 +1,60 @@
+package com.test.weather.handler.api;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.HistoryResponse;
+import com.test.weather.service.WeatherForecastService;
+
+import lombok.AllArgsConstructor;
+
+import static com.test.weather.utility.Constants.ERROR_MESSAGE;
+
+/**
+ * This class is a REST controller that summarizes the readings recorded for a zip code over a time
+ * window. It only exists when `weather.series.enabled` is set.
+ *
+ * @author N Javeed
+ */
+@RestController
+@AllArgsConstructor
+@ConditionalOnProperty(name = "weather.series.enabled", havingValue = "true")
+public class ForecastHistoryAPIController implements ForecastHistoryAPI {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofHours(24);
+
+    private final WeatherForecastService weatherForecastService;
+
+    /**
+     * This Java function returns the lowest, highest and average temperature recorded for the zip code
+     * between `from` and `to`.
+     *
+     * @param zipCode The `zipCode` parameter is the zip code to summarize.
+     * @param unit The `unit` parameter is the temperature unit of the summary.
+     * @param from The `from` parameter is the ISO-8601 start of the window; 24 hours before `to` when
+     * omitted.
+     * @param to The `to` parameter is the ISO-8601 end of the window; now when omitted.
+     * @return A `ResponseEntity` containing a `HistoryResponse`, or 400 when `from` is after `to`.
+     */
+    @Override
+    public ResponseEntity<HistoryResponse> getHistory(@RequestParam int zipCode, @RequestParam Unit unit,
+            @RequestParam(required = false) Instant from, @RequestParam(required = false) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_WINDOW);
+        if (start.isAfter(end)) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add(ERROR_MESSAGE, "from must not be after to");
+            return new ResponseEntity<>(HistoryResponse.builder().build(), headers, HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(weatherForecastService.getHistory(zipCode, unit, start, end));
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.test.weather.handler.api;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.test.weather.model.enums.Unit;
+
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+@RestController
+@RequestMapping("/weather-forecast")
+public interface ForecastSubscriptionAPI {
+
+    @GetMapping(value = "/v1/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiResponse(responseCode = "200", description = "Server-sent events named `forecast`, each `{\"zipCode\":…,\"forecast\":WeatherAPIResponse}`, "
+            + "sent for the current readings and then whenever a subscribed zip code's reading changes",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(type = "string")))
+    ResponseEntity<SseEmitter> subscribe(@RequestParam List<Integer> zipCodes, @RequestParam Unit unit);
+
+}
@@ -0,0 +1,81 @@
+package com.test.weather.handler.api;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.test.weather.model.enums.Unit;
+import com.test.weather.service.WeatherForecastService;
+import com.test.weather.subscription.ForecastBroadcaster;
+import com.test.weather.subscription.ForecastSubscription;
+
+import lombok.AllArgsConstructor;
+
+import static com.test.weather.utility.Constants.ERROR_MESSAGE;
+
+/**
+ * This class is a REST controller that streams forecast updates for a set of zip codes to clients
+ * over server-sent events, in place of polling `/v1`.
+ *
+ * @author N Javeed
+ */
+@RestController
+@AllArgsConstructor
+public class ForecastSubscriptionAPIController implements ForecastSubscriptionAPI {
+
+    private final ForecastBroadcaster forecastBroadcaster;
+
+    private final WeatherForecastService weatherForecastService;
+
+    @Value("${weather.subscriptions.max-zips}")
+    private final int maxZips;
+
+    @Value("${weather.subscriptions.retry-after-seconds}")
+    private final long retryAfterSeconds;
+
+    /**
+     * This Java function subscribes the client to forecast updates for the zip codes. The current
+     * cached readings are sent first; zip codes with no cached reading are fetched in the background
+     * and sent when they arrive. After that an event is sent whenever a zip code's reading changes.
+     *
+     * @param zipCodes The `zipCodes` parameter lists the zip codes to subscribe to; duplicates are
+     * subscribed once.
+     * @param unit The `unit` parameter is the temperature unit of the pushed forecasts.
+     * @return A `ResponseEntity` with the event stream, 400 when the zip codes are missing or more than
+     * `weather.subscriptions.max-zips`, or 503 with `Retry-After` when the server is at
+     * `weather.subscriptions.max-subscribers`.
+     */
+    @Override
+    public ResponseEntity<SseEmitter> subscribe(@RequestParam List<Integer> zipCodes, @RequestParam Unit unit) {
+        HttpHeaders headers = new HttpHeaders();
+        Set<Integer> uniqueZipCodes = new LinkedHashSet<>(zipCodes);
+        if (uniqueZipCodes.isEmpty() || uniqueZipCodes.contains(null)) {
+            headers.add(ERROR_MESSAGE, "zipCodes and unit are required");
+            return new ResponseEntity<>(headers, HttpStatus.BAD_REQUEST);
+        }
+        if (uniqueZipCodes.size() > maxZips) {
+            headers.add(ERROR_MESSAGE, "At most " + maxZips + " zipCodes are allowed per subscription");
+            return new ResponseEntity<>(headers, HttpStatus.BAD_REQUEST);
+        }
+        ForecastSubscription subscription = forecastBroadcaster.subscribe(uniqueZipCodes, unit, weatherForecastService::peekReading);
+        if (subscription == null) {
+            headers.add(ERROR_MESSAGE, "Too many open subscriptions");
+            headers.add(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return new ResponseEntity<>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        uniqueZipCodes.forEach(weatherForecastService::refreshIfDue);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(subscription.getEmitter());
+    }
+
+}
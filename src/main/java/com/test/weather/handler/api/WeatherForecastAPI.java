@@ -1,19 +1,48 @@
 package com.test.weather.handler.api;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.test.weather.model.enums.Unit;
+import com.test.weather.model.request.BatchForecastRequest;
+import com.test.weather.model.response.BatchForecastResponse;
 import com.test.weather.model.response.WeatherAPIResponse;
 
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import static com.test.weather.configuration.OpenAPIConfiguration.FORECAST_RECORD_SCHEMA;
+import static com.test.weather.utility.Constants.APPLICATION_FORECAST_RECORD_VALUE;
+import static com.test.weather.utility.Constants.APPLICATION_SMILE_VALUE;
+
 @RestController
 @RequestMapping("/weather-forecast")
 public interface WeatherForecastAPI {
 
-    @GetMapping("/v1")
-    ResponseEntity<WeatherAPIResponse> getWeatherForecast(@RequestParam int zipCode, @RequestParam Unit unit);
+    @GetMapping(value = "/v1", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            APPLICATION_SMILE_VALUE, APPLICATION_FORECAST_RECORD_VALUE })
+    @ApiResponse(responseCode = "200", description = "Forecast for the zip code, in the format named by Accept; 304 when the client's copy is current",
+            content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = WeatherAPIResponse.class)),
+                    @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = WeatherAPIResponse.class)),
+                    @Content(mediaType = APPLICATION_SMILE_VALUE, schema = @Schema(implementation = WeatherAPIResponse.class)),
+                    @Content(mediaType = APPLICATION_FORECAST_RECORD_VALUE, schema = @Schema(ref = FORECAST_RECORD_SCHEMA))
+            })
+    ResponseEntity<byte[]> getWeatherForecast(@RequestParam int zipCode, @RequestParam Unit unit, WebRequest request);
+
+    @GetMapping("/v1/async")
+    DeferredResult<ResponseEntity<WeatherAPIResponse>> getWeatherForecastAsync(@RequestParam int zipCode, @RequestParam Unit unit);
+
+    @PostMapping("/v1/batch")
+    ResponseEntity<BatchForecastResponse> getWeatherForecasts(@RequestBody BatchForecastRequest request);
     
 }
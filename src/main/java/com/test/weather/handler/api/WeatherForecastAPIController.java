@@ -1,16 +1,31 @@
 package com.test.weather.handler.api;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.ForecastFormat;
 import com.test.weather.model.enums.Unit;
+import com.test.weather.model.request.BatchForecastRequest;
+import com.test.weather.model.response.BatchForecastResponse;
 import com.test.weather.model.response.WeatherAPIResponse;
+import com.test.weather.sao.UpstreamUnavailableException;
+import com.test.weather.service.AsyncWeatherForecastService;
 import com.test.weather.service.WeatherForecastService;
 
 import lombok.AllArgsConstructor;
@@ -29,6 +44,16 @@ public class WeatherForecastAPIController implements WeatherForecastAPI {
 
     private final WeatherForecastService weatherForecastService;
 
+    private final AsyncWeatherForecastService asyncWeatherForecastService;
+
+    private final ForecastEncoder forecastEncoder;
+
+    @Value("${weather.upstream.timeout-ms}")
+    private final long upstreamTimeoutMs;
+
+    @Value("${weather.batch.max-size}")
+    private final int maxBatchSize;
+
     /**
      * This Java function retrieves weather forecast data based on a given zip code and unit, handling
      * exceptions and returning the response with appropriate headers.
@@ -38,21 +63,148 @@ public class WeatherForecastAPIController implements WeatherForecastAPI {
      * @param unit The `unit` parameter in the `getWeatherForecast` method is used to specify the unit
      * of measurement for the weather data. It is typically used to indicate whether the temperature
      * should be displayed in Celsius or Fahrenheit, for example.
-     * @return A `ResponseEntity` containing a `WeatherAPIResponse` object, along with headers and an
-     * HTTP status code.
+     * @param request The `request` parameter gives access to the `Accept` and conditional request
+     * headers. When `If-None-Match` or `If-Modified-Since` still matches the cached reading, 304 is
+     * returned without a body.
+     * @return A `ResponseEntity` containing the `WeatherAPIResponse` encoded in the format `Accept`
+     * asks for, JSON by default, written from the bytes stored with the reading, along with `ETag`,
+     * `Last-Modified` and `Cache-Control` headers derived from the reading's fetch time and TTL. A
+     * forecast borrowed from a nearby zip code carries `X-Approximated-From` with that zip code. When
+     * the external API is unavailable and no reading was ever fetched for the zip code, 503 with
+     * `Retry-After` is returned.
      */
     @Override
-    public ResponseEntity<WeatherAPIResponse> getWeatherForecast(int zipCode, @RequestParam Unit unit) {
+    public ResponseEntity<byte[]> getWeatherForecast(int zipCode, @RequestParam Unit unit, WebRequest request) {
+        ForecastFormat format = ForecastFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
         try {
-            WeatherAPIResponse response = weatherForecastService.getForecast(Map.of(ZIP_CODE, String.valueOf(zipCode), UNIT, unit.name()));
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(IS_CACHED, String.valueOf(response.isCached()));
-            return new ResponseEntity<>(response, headers, HttpStatus.OK);
+            ForecastResult result = weatherForecastService.getForecastResult(zipCode, unit);
+            long lastModified = result.getReading().getFetchedAt();
+            if (request.checkNotModified(result.getETag(format), lastModified)) {
+                return null;
+            }
+            long maxAgeSeconds = Math.max(0, result.getExpiresAt() - System.currentTimeMillis()) / 1000;
+            return ResponseEntity.ok()
+                    .header(IS_CACHED, String.valueOf(result.isCached()))
+                    .header(CACHE_STATUS, result.getStatus().name().toLowerCase())
+                    .headers(approximationHeaders(result))
+                    .eTag(result.getETag(format))
+                    .lastModified(lastModified)
+                    .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .contentType(format.getMediaType())
+                    .body(forecastEncoder.encode(result.getReading(), unit, format));
         } catch( Exception e) {
             HttpHeaders headers = new HttpHeaders();
             headers.add(ERROR_MESSAGE, e.getLocalizedMessage());
             headers.add(IS_CACHED, "false");
-            return new ResponseEntity<>(WeatherAPIResponse.builder().build(), headers, HttpStatus.INTERNAL_SERVER_ERROR);
+            headers.setContentType(format.getMediaType());
+            if (e instanceof UpstreamUnavailableException unavailable) {
+                headers.add(HttpHeaders.RETRY_AFTER, retryAfterSeconds(unavailable));
+                return new ResponseEntity<>(forecastEncoder.empty(format), headers, HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return new ResponseEntity<>(forecastEncoder.empty(format), headers, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * This Java function is the non-blocking form of `getWeatherForecast`. The servlet thread is
+     * released as soon as the request is registered and the response is written when the forecast
+     * completes. A forecast that takes longer than `weather.upstream.timeout-ms` is answered with 504
+     * and the caller's wait is cancelled.
+     * 
+     * @param zipCode The `zipCode` parameter is an integer representing the postal code for which you
+     * want to retrieve the weather forecast.
+     * @param unit The `unit` parameter is the temperature unit of the forecast.
+     * @return A `DeferredResult` completed with the same response `getWeatherForecast` would return.
+     */
+    @Override
+    public DeferredResult<ResponseEntity<WeatherAPIResponse>> getWeatherForecastAsync(int zipCode, @RequestParam Unit unit) {
+        // The service enforces the upstream timeout; the servlet timeout is only a backstop
+        DeferredResult<ResponseEntity<WeatherAPIResponse>> result = new DeferredResult<>(upstreamTimeoutMs + 1000);
+        CompletableFuture<ForecastResult> forecast = asyncWeatherForecastService.getForecastAsync(zipCode, unit);
+        result.onTimeout(() -> {
+            forecast.cancel(true);
+            result.setResult(errorResponse("Timed out waiting for the external API", HttpStatus.GATEWAY_TIMEOUT));
+        });
+        forecast.whenComplete((forecastResult, e) -> {
+            if (e == null) {
+                result.setResult(forecastResponse(forecastResult));
+                return;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                result.setResult(errorResponse("Timed out waiting for the external API", HttpStatus.GATEWAY_TIMEOUT));
+            } else if (cause instanceof UpstreamUnavailableException unavailable) {
+                result.setResult(unavailableResponse(unavailable));
+            } else {
+                result.setResult(errorResponse(cause.getLocalizedMessage(), HttpStatus.INTERNAL_SERVER_ERROR));
+            }
+        });
+        return result;
+    }
+
+    private ResponseEntity<WeatherAPIResponse> forecastResponse(ForecastResult forecastResult) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(IS_CACHED, String.valueOf(forecastResult.isCached()));
+        headers.add(CACHE_STATUS, forecastResult.getStatus().name().toLowerCase());
+        headers.addAll(approximationHeaders(forecastResult));
+        return new ResponseEntity<>(forecastResult.toResponse(), headers, HttpStatus.OK);
+    }
+
+    private HttpHeaders approximationHeaders(ForecastResult forecastResult) {
+        HttpHeaders headers = new HttpHeaders();
+        if (forecastResult.getApproximatedFrom() != null) {
+            headers.add(APPROXIMATED_FROM, String.valueOf(forecastResult.getApproximatedFrom()));
+        }
+        return headers;
+    }
+
+    private ResponseEntity<WeatherAPIResponse> unavailableResponse(UpstreamUnavailableException e) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(ERROR_MESSAGE, e.getLocalizedMessage());
+        headers.add(IS_CACHED, "false");
+        headers.add(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e));
+        return new ResponseEntity<>(WeatherAPIResponse.builder().build(), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private String retryAfterSeconds(UpstreamUnavailableException e) {
+        return String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(e.getRetryAfterMillis() + 999)));
+    }
+
+    private ResponseEntity<WeatherAPIResponse> errorResponse(String message, HttpStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(ERROR_MESSAGE, message);
+        headers.add(IS_CACHED, "false");
+        return new ResponseEntity<>(WeatherAPIResponse.builder().build(), headers, status);
+    }
+
+    /**
+     * This Java function retrieves weather forecasts for a list of zip codes in one call. Failures are
+     * reported per zip code so one bad zip code does not fail the whole batch.
+     * 
+     * @param request The `request` parameter carries the zip codes to forecast and the unit to report
+     * them in.
+     * @return A `ResponseEntity` containing a `BatchForecastResponse` with the forecasts that succeeded
+     * and an error message for each zip code that failed.
+     */
+    @Override
+    public ResponseEntity<BatchForecastResponse> getWeatherForecasts(@RequestBody BatchForecastRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        if (request.getZipCodes() == null || request.getZipCodes().isEmpty() || request.getUnit() == null
+                || request.getZipCodes().contains(null)) {
+            headers.add(ERROR_MESSAGE, "zipCodes and unit are required");
+            return new ResponseEntity<>(BatchForecastResponse.builder().build(), headers, HttpStatus.BAD_REQUEST);
+        }
+        if (request.getZipCodes().size() > maxBatchSize) {
+            headers.add(ERROR_MESSAGE, "At most " + maxBatchSize + " zipCodes are allowed per batch");
+            return new ResponseEntity<>(BatchForecastResponse.builder().build(), headers, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            BatchForecastResponse response = weatherForecastService.getForecasts(request.getZipCodes(), request.getUnit());
+            return new ResponseEntity<>(response, headers, HttpStatus.OK);
+        } catch (Exception e) {
+            headers.add(ERROR_MESSAGE, e.getLocalizedMessage());
+            return new ResponseEntity<>(BatchForecastResponse.builder().build(), headers, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
     
@@ -0,0 +1,130 @@
+package com.test.weather.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.test.weather.cache.CompactReadingCache;
+import com.test.weather.cache.TieredReadingCache;
+import com.test.weather.utility.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The `ForecastMetrics` class owns the hot-path instrumentation: upstream latency, end-to-end
+ * forecast latency split by cache hit and miss, the hottest zip codes and the in-flight fetch
+ * coalescing counters. Everything is published through Micrometer and exposed on
+ * `/actuator/metrics`; the hot zip codes are exposed on `/actuator/hotzips`.
+ *
+ * @author N Javeed
+ */
+@Component
+public class ForecastMetrics {
+
+    private static final String WEATHER_CACHE = "weatherCache";
+
+    private final MeterRegistry registry;
+
+    private final Timer upstreamLatency;
+
+    private final Timer hitLatency;
+
+    private final Timer missLatency;
+
+    private final HotKeyTracker hotKeys;
+
+    private final Counter approximated;
+
+    public ForecastMetrics(MeterRegistry registry, CacheManager cacheManager,
+            @Value("${weather.metrics.hot-keys.capacity}") int hotKeyCapacity,
+            @Value("${weather.metrics.hot-keys.sketch-width}") int sketchWidth,
+            @Value("${weather.metrics.hot-keys.decay-interval}") long decayInterval) {
+        this.registry = registry;
+        this.upstreamLatency = Timer.builder("weather.upstream.latency")
+                .description("Latency of calls to the external weather API")
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.hitLatency = forecastTimer("hit");
+        this.missLatency = forecastTimer("miss");
+        this.hotKeys = new HotKeyTracker(hotKeyCapacity, sketchWidth, decayInterval);
+        this.approximated = Counter.builder("weather.forecast.approximated")
+                .description("Cache misses answered with a nearby zip code's reading instead of an upstream call")
+                .register(registry);
+        bindCache(cacheManager.getCache(WEATHER_CACHE));
+    }
+
+    /**
+     * Records one call to the external API that started at `startNanos`.
+     */
+    public void recordUpstream(long startNanos) {
+        upstreamLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one forecast request for the zip code that started at `startNanos`.
+     */
+    public void recordForecast(int zipCode, boolean cacheHit, long startNanos) {
+        (cacheHit ? hitLatency : missLatency).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        hotKeys.record(zipCode);
+    }
+
+    /**
+     * Records one cache miss answered with a nearby zip code's reading.
+     */
+    public void recordApproximation() {
+        approximated.increment();
+    }
+
+    /**
+     * Publishes the flight and coalesced-waiter counts of the service's in-flight fetches.
+     */
+    public void monitorInFlightFetches(SingleFlight<?, ?, ?> inFlightFetches) {
+        FunctionCounter.builder("weather.upstream.flights", inFlightFetches, SingleFlight::getFlightCount)
+                .description("Upstream fetches started, one per herd of concurrent misses")
+                .register(registry);
+        FunctionCounter.builder("weather.upstream.coalesced", inFlightFetches, SingleFlight::getCoalescedCount)
+                .description("Requests that waited on another request's upstream fetch")
+                .register(registry);
+        Gauge.builder("weather.upstream.in-flight", inFlightFetches, SingleFlight::getInFlightCount)
+                .description("Upstream fetches currently in flight")
+                .register(registry);
+    }
+
+    public HotKeyTracker getHotKeys() {
+        return hotKeys;
+    }
+
+    private Timer forecastTimer(String cache) {
+        return Timer.builder("weather.forecast.latency")
+                .description("End-to-end latency of forecast requests")
+                .tag("cache", cache)
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Spring Boot binds Caffeine caches on its own; a tiered cache hides its Caffeine tier and the
+     * compact store is not a type Boot knows, so those are bound here.
+     */
+    private void bindCache(Cache cache) {
+        Cache memory = cache instanceof TieredReadingCache tiered ? tiered.getMemoryCache() : cache;
+        Tags tags = memory != cache ? Tags.of("tier", "memory") : Tags.empty();
+        if (memory instanceof CompactReadingCache compact) {
+            new CompactReadingCacheMetrics(compact, WEATHER_CACHE, tags).bindTo(registry);
+        } else if (memory != cache && memory.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            CaffeineCacheMetrics.monitor(registry, caffeine, WEATHER_CACHE, tags);
+        }
+    }
+
+}
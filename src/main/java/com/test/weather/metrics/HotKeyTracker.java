@@ -0,0 +1,172 @@
+package com.test.weather.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `HotKeyTracker` class keeps a bounded view of the most requested zip codes. Request counts are
+ * estimated with a Count-Min sketch of fixed size, and only the `capacity` zip codes with the highest
+ * estimates are remembered, so memory stays constant however many distinct zip codes are seen.
+ * Counts are halved every `decayInterval` requests so the ranking follows recent traffic.
+ *
+ * Recording a request costs the sketch increments and a map update. Zip codes whose estimate passes
+ * the coldest tracked zip code are queued and admitted in batches, every `ADMISSION_INTERVAL`
+ * requests or once `capacity` are waiting, by whichever request finds the admission lock free; the
+ * ranking and the admission threshold are only recomputed then and on decay.
+ *
+ * @author N Javeed
+ */
+public class HotKeyTracker {
+
+    private static final int DEPTH = 4;
+
+    private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+    static final int ADMISSION_INTERVAL = 1024;
+
+    private final int capacity;
+
+    private final int widthMask;
+
+    private final long decayInterval;
+
+    private final AtomicLongArray counters;
+
+    private final Map<Integer, Long> candidates = new ConcurrentHashMap<>();
+
+    // Zip codes waiting for the next batch admission, with their latest estimate
+    private final Map<Integer, Long> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    private final ReentrantLock admissionLock = new ReentrantLock();
+
+    private volatile long admissionThreshold;
+
+    public HotKeyTracker(int capacity, int width, long decayInterval) {
+        this.capacity = capacity;
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.widthMask = roundedWidth - 1;
+        this.decayInterval = decayInterval;
+        this.counters = new AtomicLongArray(DEPTH * roundedWidth);
+    }
+
+    /**
+     * Counts one request for the zip code.
+     */
+    public void record(int zipCode) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(row, zipCode)));
+        }
+        if (candidates.replace(zipCode, estimate) == null) {
+            if (candidates.size() < capacity) {
+                // Still filling up: nothing to evict, so no ranking is needed
+                candidates.putIfAbsent(zipCode, estimate);
+            } else if (estimate > admissionThreshold) {
+                pending.put(zipCode, estimate);
+            }
+        }
+        long count = recorded.incrementAndGet();
+        if (count % decayInterval == 0) {
+            decay();
+        } else if ((count % ADMISSION_INTERVAL == 0 || pending.size() >= capacity) && admissionLock.tryLock()) {
+            try {
+                admitPending();
+            } finally {
+                admissionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return Whether the zip code is currently among the tracked hot zip codes.
+     */
+    public boolean isHot(int zipCode) {
+        return candidates.containsKey(zipCode);
+    }
+
+    /**
+     * @return The tracked zip codes with their estimated request counts, hottest first.
+     */
+    public List<HotKey> top() {
+        admissionLock.lock();
+        try {
+            admitPending();
+        } finally {
+            admissionLock.unlock();
+        }
+        return candidates.entrySet().stream()
+                .map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(HotKey::estimatedRequests).reversed())
+                .toList();
+    }
+
+    /**
+     * A zip code and its estimated request count.
+     */
+    public record HotKey(int zipCode, long estimatedRequests) {
+    }
+
+    /**
+     * @return The sketch's estimate of the zip code's request count, which is never below the true
+     * count since the last decays.
+     */
+    long estimate(int zipCode) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, zipCode)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Merges the queued zip codes into the candidates, keeps the `capacity` hottest and recomputes the
+     * admission threshold. Called with the admission lock held.
+     */
+    private void admitPending() {
+        for (Iterator<Map.Entry<Integer, Long>> queued = pending.entrySet().iterator(); queued.hasNext();) {
+            Map.Entry<Integer, Long> entry = queued.next();
+            queued.remove();
+            candidates.merge(entry.getKey(), entry.getValue(), Math::max);
+        }
+        if (candidates.size() > capacity) {
+            List<Map.Entry<Integer, Long>> ranked = new ArrayList<>(candidates.entrySet());
+            ranked.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+            for (Map.Entry<Integer, Long> coldest : ranked.subList(capacity, ranked.size())) {
+                candidates.remove(coldest.getKey());
+            }
+        }
+        admissionThreshold = candidates.size() >= capacity
+                ? candidates.values().stream().mapToLong(Long::longValue).min().orElse(0)
+                : 0;
+    }
+
+    private void decay() {
+        admissionLock.lock();
+        try {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.updateAndGet(i, count -> count >>> 1);
+            }
+            pending.replaceAll((zipCode, count) -> count >>> 1);
+            candidates.replaceAll((zipCode, count) -> count >>> 1);
+            admitPending();
+        } finally {
+            admissionLock.unlock();
+        }
+    }
+
+    private int index(int row, int zipCode) {
+        int h = zipCode * SEEDS[row];
+        h ^= h >>> 15;
+        return row * (widthMask + 1) + (h & widthMask);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.test.weather.metrics;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The `HotZipsEndpoint` class exposes the most requested zip codes on `/actuator/hotzips`.
+ *
+ * @author N Javeed
+ */
+@Component
+@Endpoint(id = "hotzips")
+@RequiredArgsConstructor
+public class HotZipsEndpoint {
+
+    private final ForecastMetrics forecastMetrics;
+
+    @ReadOperation
+    public List<HotKeyTracker.HotKey> hotZips() {
+        return forecastMetrics.getHotKeys().top();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.test.weather.model.cache;
+
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * The `ForecastResult` class is what the service answers a forecast request with: the canonical
+ * reading, the unit it was requested in, how it was served, until when it may be reused, and the
+ * neighbouring zip code it was borrowed from, if any.
+ *
+ * @author N Javeed
+ */
+@Value
+@Builder
+public class ForecastResult {
+
+    int zipCode;
+
+    WeatherReading reading;
+
+    Unit unit;
+
+    CacheStatus status;
+
+    long expiresAt;
+
+    /**
+     * The zip code whose reading answered this request when no reading for the requested zip code
+     * was cached, or `null` when the reading is the requested zip code's own.
+     */
+    Integer approximatedFrom;
+
+    public boolean isCached() {
+        return status != CacheStatus.MISS;
+    }
+
+    public WeatherAPIResponse toResponse() {
+        return reading.toResponse(unit);
+    }
+
+    /**
+     * @return A strong entity tag that changes whenever a new reading is fetched for the zip code, and
+     * differs between the formats the reading can be sent in.
+     */
+    public String getETag(ForecastFormat format) {
+        String suffix = format == ForecastFormat.JSON ? "" : "-" + format.name().toLowerCase();
+        return "\"" + Integer.toHexString(zipCode) + "-" + Long.toHexString(reading.getFetchedAt())
+                + "-" + unit.name().charAt(0) + suffix + "\"";
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.test.weather.model.cache;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `ReadingSummary` record is one day of a zip code's recorded readings rolled up: the lowest low,
+ * the highest high and the average current temperature.
+ *
+ * @author N Javeed
+ */
+public record ReadingSummary(LocalDate day, double low, double high, double average, Unit unit) implements Serializable {
+}
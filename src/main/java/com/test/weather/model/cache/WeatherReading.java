@@ -0,0 +1,130 @@
+package com.test.weather.model.cache;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+import com.test.weather.utility.UnitConversion;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * The `WeatherReading` class is the canonical cache entry for a zip code. It holds the reading in the
+ * upstream's native unit together with the time it was fetched; the requested unit is applied when a
+ * response is built from it.
+ *
+ * @author N Javeed
+ */
+@Value
+@Builder(toBuilder = true)
+public class WeatherReading implements Serializable {
+
+    double currentTemperature;
+
+    double lowTemperature;
+
+    double highTemperature;
+
+    Unit unit;
+
+    long fetchedAt;
+
+    /**
+     * Daily rollups of the zip code's recorded readings, newest first, or `null` when the time series
+     * is not kept.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    List<ReadingSummary> history;
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    transient AtomicReferenceArray<byte[]> encodedBodies = new AtomicReferenceArray<>(ForecastFormat.values().length * Unit.values().length);
+
+    /**
+     * @return The body previously stored for the format and unit, or `null` if it has not been encoded
+     * yet.
+     */
+    public byte[] getEncoded(ForecastFormat format, Unit requestedUnit) {
+        return encodedBodies != null ? encodedBodies.get(bodyIndex(format, requestedUnit)) : null;
+    }
+
+    /**
+     * Stores the encoded body for the format and unit so later hits can reuse it.
+     */
+    public void setEncoded(ForecastFormat format, Unit requestedUnit, byte[] body) {
+        if (encodedBodies != null) {
+            encodedBodies.set(bodyIndex(format, requestedUnit), body);
+        }
+    }
+
+    private static int bodyIndex(ForecastFormat format, Unit requestedUnit) {
+        return format.ordinal() * Unit.values().length + requestedUnit.ordinal();
+    }
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    transient AtomicReferenceArray<WeatherAPIResponse> responses = new AtomicReferenceArray<>(Unit.values().length);
+
+    /**
+     * The function returns the response for this reading in the requested unit, converting the
+     * temperatures if the requested unit differs from the native one. The response is immutable and
+     * built at most once per unit; every caller gets the same instance. Its `nextForecast` starts with
+     * the current values, followed by one entry per day of `history` when the time series is kept.
+     *
+     * @param requestedUnit The `requestedUnit` parameter is the unit the caller asked for.
+     * @return The shared `WeatherAPIResponse` in the requested unit.
+     */
+    public WeatherAPIResponse toResponse(Unit requestedUnit) {
+        if (responses == null) {
+            return buildResponse(requestedUnit);
+        }
+        WeatherAPIResponse response = responses.get(requestedUnit.ordinal());
+        if (response == null) {
+            responses.compareAndSet(requestedUnit.ordinal(), null, buildResponse(requestedUnit));
+            response = responses.get(requestedUnit.ordinal());
+        }
+        return response;
+    }
+
+    private WeatherAPIResponse buildResponse(Unit requestedUnit) {
+        WeatherAPIResponse current = WeatherAPIResponse.builder()
+                .currentTemperature(UnitConversion.convert(currentTemperature, unit, requestedUnit))
+                .lowTemperature(UnitConversion.convert(lowTemperature, unit, requestedUnit))
+                .highTemperature(UnitConversion.convert(highTemperature, unit, requestedUnit))
+                .temperatureUnit(requestedUnit)
+                .lastUpdated(String.valueOf(LocalDateTime.ofInstant(Instant.ofEpochMilli(fetchedAt), ZoneId.systemDefault())))
+                .build();
+        List<WeatherAPIResponse> series = new ArrayList<>(1 + (history != null ? history.size() : 0));
+        series.add(current);
+        if (history != null) {
+            for (ReadingSummary day : history) {
+                series.add(WeatherAPIResponse.builder()
+                        .currentTemperature(UnitConversion.convert(day.average(), day.unit(), requestedUnit))
+                        .lowTemperature(UnitConversion.convert(day.low(), day.unit(), requestedUnit))
+                        .highTemperature(UnitConversion.convert(day.high(), day.unit(), requestedUnit))
+                        .temperatureUnit(requestedUnit)
+                        .lastUpdated(String.valueOf(day.day()))
+                        .build());
+            }
+        }
+        return current.toBuilder()
+                .nextForecast(List.copyOf(series))
+                .build();
+    }
+
+}
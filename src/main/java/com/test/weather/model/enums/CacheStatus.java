@@ -0,0 +1,13 @@
+package com.test.weather.model.enums;
+
+/**
+ * How a forecast was served: straight from the external API, or from the cache and in which state.
+ */
+public enum CacheStatus {
+
+    MISS,
+    FRESH,
+    REFRESHING,
+    STALE
+    
+}
@@ -0,0 +1,65 @@
+package com.test.weather.model.enums;
+
+import static com.test.weather.utility.Constants.APPLICATION_FORECAST_RECORD_VALUE;
+import static com.test.weather.utility.Constants.APPLICATION_SMILE_VALUE;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+public enum ForecastFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(MediaType.valueOf(APPLICATION_SMILE_VALUE)),
+    RECORD(MediaType.valueOf(APPLICATION_FORECAST_RECORD_VALUE));
+
+    private final MediaType mediaType;
+
+    ForecastFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The function picks the format an `Accept` header prefers: the highest quality media type that
+     * names one of the formats, a concrete type before a wildcard of the same quality, as in
+     * `MimeTypeUtils.sortBySpecificity`, and remaining ties going to the order in the header. A
+     * wildcard stands for JSON.
+     *
+     * @param accept The `accept` parameter is the raw `Accept` header, or `null`.
+     * @return The negotiated format, JSON when the header is absent or names none of the formats.
+     */
+    public static ForecastFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return accepted.stream()
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue)
+                        .thenComparingInt(ForecastFormat::specificity)
+                        .reversed())
+                .flatMap(mediaType -> List.of(values()).stream().filter(format -> mediaType.includes(format.mediaType)))
+                .findFirst()
+                .orElse(JSON);
+    }
+
+    private static int specificity(MediaType mediaType) {
+        if (mediaType.isWildcardType()) {
+            return 0;
+        }
+        return mediaType.isWildcardSubtype() ? 1 : 2;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.test.weather.model.request;
+
+import java.util.List;
+
+import com.test.weather.model.enums.Unit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchForecastRequest {
+
+    private List<Integer> zipCodes;
+
+    private Unit unit;
+
+}
@@ -0,0 +1,25 @@
+package com.test.weather.model.response;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchForecastResponse {
+
+    private Map<Integer, WeatherAPIResponse> forecasts;
+
+    private Map<Integer, String> errors;
+
+    private Map<Integer, Integer> approximations;
+
+}
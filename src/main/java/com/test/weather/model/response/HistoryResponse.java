@@ -0,0 +1,36 @@
+package com.test.weather.model.response;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.test.weather.model.enums.Unit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistoryResponse {
+
+    private int zipCode;
+
+    private Unit temperatureUnit;
+
+    private Instant from;
+
+    private Instant to;
+
+    private long samples;
+
+    private Double minTemperature;
+
+    private Double maxTemperature;
+
+    private Double averageTemperature;
+
+}
@@ -3,45 +3,36 @@ package com.test.weather.model.response;
 import java.io.Serializable;
 import java.util.List;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.test.weather.model.enums.Unit;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-
-@Data
-@Builder
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * The `WeatherAPIResponse` class is an immutable forecast snapshot. One instance per reading and unit
+ * is shared by every request that reads it, so it carries nothing request-specific; how a forecast was
+ * served travels separately in `ForecastResult`.
+ *
+ * @author N Javeed
+ */
+@Value
+@Builder(toBuilder = true)
+@Jacksonized
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@AllArgsConstructor
-@NoArgsConstructor
-public class WeatherAPIResponse implements Serializable, Cloneable {
-
-    private double currentTemperature;
-
-    private double lowTemperature;
+public class WeatherAPIResponse implements Serializable {
 
-    private double highTemperature;
+    double currentTemperature;
 
-    @JsonIgnore
-    @Builder.Default
-    private boolean isCached = true;
+    double lowTemperature;
 
-    private Unit temperatureUnit;
+    double highTemperature;
 
-    private String lastUpdated;
+    Unit temperatureUnit;
 
-    private List<WeatherAPIResponse> nextForecast;
+    String lastUpdated;
 
-    @Override
-    public Object clone() {
-        try {
-            return super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException("Error cloning WeatherAPIResponse", e);
-        }
-    }
+    List<WeatherAPIResponse> nextForecast;
 
 }
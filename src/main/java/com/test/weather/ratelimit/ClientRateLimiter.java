@@ -0,0 +1,50 @@
+package com.test.weather.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * The `ClientRateLimiter` class holds one `TokenBucket` per client for a single limit. Buckets of
+ * clients that have gone quiet are dropped once they would be full again, so memory follows the
+ * number of active clients.
+ *
+ * @author N Javeed
+ */
+public class ClientRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Function<String, TokenBucket> newBucket;
+
+    public ClientRateLimiter(RateLimit limit, long maxClients) {
+        // An idle bucket refills completely after burst emission intervals; past that it is a new bucket
+        long idleNanos = limit.getEmissionIntervalNanos() * limit.burst();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Math.max(idleNanos, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS)
+                .build();
+        this.newBucket = client -> new TokenBucket(limit, System.nanoTime());
+    }
+
+    public long tryAcquire(String client, long nowNanos) {
+        return bucket(client).tryAcquire(nowNanos);
+    }
+
+    public long peek(String client, long nowNanos) {
+        TokenBucket bucket = buckets.getIfPresent(client);
+        return bucket != null ? bucket.peek(nowNanos) : 0;
+    }
+
+    public void debit(String client, long nowNanos, int tokens) {
+        bucket(client).debit(nowNanos, tokens);
+    }
+
+    private TokenBucket bucket(String client) {
+        TokenBucket bucket = buckets.getIfPresent(client);
+        return bucket != null ? bucket : buckets.get(client, newBucket);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.test.weather.ratelimit;
+
+/**
+ * A sustained rate in requests per second together with the burst allowed above it, written in
+ * properties as `rate/burst`, for example `50/100`.
+ *
+ * @author N Javeed
+ */
+public record RateLimit(double ratePerSecond, int burst) {
+
+    public RateLimit {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+    }
+
+    public static RateLimit parse(String value) {
+        String[] parts = value.trim().split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Rate limit must be written as rate/burst: " + value);
+        }
+        return new RateLimit(Double.parseDouble(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+    }
+
+    public long getEmissionIntervalNanos() {
+        return Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+    }
+
+}
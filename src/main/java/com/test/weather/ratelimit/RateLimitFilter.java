@@ -0,0 +1,134 @@
+package com.test.weather.ratelimit;
+
+import static com.test.weather.utility.Constants.API_KEY;
+import static com.test.weather.utility.Constants.ERROR_MESSAGE;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The `RateLimitFilter` class throttles clients in the security filter chain. A client is identified
+ * by its `X-API-Key` header when the key is one of the configured keys, and otherwise by its remote
+ * address, so a client cannot escape its limit, or crowd other clients' buckets out, by sending a new
+ * key with every request. Each configured route has its own limit per client; routes without one are
+ * not throttled. A route ending in `/**` covers every path below it, such as a path with a variable.
+ * 
+ * Every call to the external API a request caused, as counted by its `UpstreamFetchCount`, is also
+ * charged to a separate, smaller miss budget per client; a batch of cold zip codes costs one token per
+ * zip code fetched, while a request served from the cache, by joining another request's fetch, or
+ * with a fallback because the call was refused or failed costs nothing. The cost is only known once
+ * the request was served, so it is debited afterwards and a client whose miss budget is exhausted is
+ * refused until it recovers.
+ * 
+ * A refused request is answered with 429 and `Retry-After`.
+ * 
+ * @author N Javeed
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final Map<String, ClientRateLimiter> routeLimiters = new HashMap<>();
+
+    // Path prefix, ending in '/', to its limiter; checked in order when no exact route matches
+    private final Map<String, ClientRateLimiter> prefixLimiters = new LinkedHashMap<>();
+
+    private final ClientRateLimiter missLimiter;
+
+    // Configured key to client id; prefixed so a key can never share a bucket with an address
+    private final Map<String, String> clientsByApiKey = new HashMap<>();
+
+    /**
+     * @param routeLimits The `routeLimits` parameter maps servlet paths, or path prefixes ending in
+     * `/**`, to their limit per client.
+     * @param missBudget The `missBudget` parameter is the limit on requests served upstream per client.
+     * @param maxClients The `maxClients` parameter bounds the buckets kept per limit.
+     * @param apiKeys The `apiKeys` parameter lists the keys that identify a client on their own; any
+     * other `X-API-Key` is ignored and the client is identified by its address.
+     */
+    public RateLimitFilter(Map<String, RateLimit> routeLimits, RateLimit missBudget, long maxClients, Set<String> apiKeys) {
+        routeLimits.forEach((route, limit) -> {
+            if (route.endsWith("/**")) {
+                prefixLimiters.put(route.substring(0, route.length() - 2), new ClientRateLimiter(limit, maxClients));
+            } else {
+                routeLimiters.put(route, new ClientRateLimiter(limit, maxClients));
+            }
+        });
+        this.missLimiter = new ClientRateLimiter(missBudget, maxClients);
+        apiKeys.forEach(apiKey -> clientsByApiKey.put(apiKey, "key:" + apiKey));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limiterFor(request.getServletPath()) == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The deferred endpoint completes on the async dispatch, so its fetches are charged there
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        if (!isAsyncDispatch(request)) {
+            long now = System.nanoTime();
+            long wait = limiterFor(request.getServletPath()).tryAcquire(client, now);
+            if (wait > 0) {
+                reject(response, "Rate limit exceeded", wait);
+                return;
+            }
+            wait = missLimiter.peek(client, now);
+            if (wait > 0) {
+                reject(response, "Cache miss budget exceeded", wait);
+                return;
+            }
+        }
+
+        UpstreamFetchCount fetches = UpstreamFetchCount.open(request);
+        filterChain.doFilter(request, response);
+
+        if (!request.isAsyncStarted() && fetches.get() > 0) {
+            missLimiter.debit(client, System.nanoTime(), fetches.get());
+        }
+    }
+
+    private ClientRateLimiter limiterFor(String path) {
+        ClientRateLimiter limiter = routeLimiters.get(path);
+        if (limiter != null) {
+            return limiter;
+        }
+        for (Map.Entry<String, ClientRateLimiter> prefix : prefixLimiters.entrySet()) {
+            if (path.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY);
+        String client = apiKey != null ? clientsByApiKey.get(apiKey) : null;
+        return client != null ? client : request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, String message, long waitNanos) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.setHeader(ERROR_MESSAGE, message);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.test.weather.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `TokenBucket` class is a lock-free token bucket implemented with the generic cell rate
+ * algorithm. Instead of a token count and a refill timestamp it keeps a single theoretical arrival
+ * time, so a request is admitted with one compare-and-set and no background refill is needed.
+ *
+ * @author N Javeed
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(RateLimit limit, long nowNanos) {
+        this.emissionIntervalNanos = limit.getEmissionIntervalNanos();
+        this.burstNanos = emissionIntervalNanos * limit.burst();
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * The function takes one token if one is available.
+     *
+     * @return 0 when the token was taken, otherwise how many nanoseconds until one is available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            long wait = next - burstNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * The function reports whether a token is available without taking it.
+     *
+     * @return 0 when a token is available, otherwise how many nanoseconds until one is.
+     */
+    public long peek(long nowNanos) {
+        long next = Math.max(theoreticalArrival.get(), nowNanos) + emissionIntervalNanos;
+        return Math.max(0, next - burstNanos - nowNanos);
+    }
+
+    /**
+     * The function takes `tokens` tokens whether or not they are available, for costs that are only
+     * known after the request was served. The bucket may go into debt, which `peek` and `tryAcquire`
+     * then report until it is paid back.
+     */
+    public void debit(long nowNanos, int tokens) {
+        theoreticalArrival.getAndUpdate(tat -> Math.max(tat, nowNanos) + emissionIntervalNanos * tokens);
+    }
+
+}
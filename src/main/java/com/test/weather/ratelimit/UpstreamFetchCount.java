@@ -0,0 +1,62 @@
+package com.test.weather.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * The `UpstreamFetchCount` class counts the calls to the external API a request caused, so that
+ * `RateLimitFilter` can charge each of them to the client's miss budget. The filter opens a count as
+ * a request attribute; the service looks it up on the request thread and adds one for every upstream
+ * call it makes for the request, including calls made on other threads for the items of a batch.
+ * Callers that joined another request's call, and calls refused or failed, add nothing.
+ *
+ * @author N Javeed
+ */
+public final class UpstreamFetchCount {
+
+    private static final String ATTRIBUTE = UpstreamFetchCount.class.getName();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    private UpstreamFetchCount() {
+    }
+
+    /**
+     * @return The request's count, created on its first dispatch and kept across async dispatches.
+     */
+    static UpstreamFetchCount open(HttpServletRequest request) {
+        UpstreamFetchCount count = (UpstreamFetchCount) request.getAttribute(ATTRIBUTE);
+        if (count == null) {
+            count = new UpstreamFetchCount();
+            request.setAttribute(ATTRIBUTE, count);
+        }
+        return count;
+    }
+
+    /**
+     * @return The count of the request being served on the calling thread, or `null` outside a
+     * request or when rate limiting does not cover it.
+     */
+    public static UpstreamFetchCount current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? (UpstreamFetchCount) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+
+    /**
+     * Adds one call to the count, if there is a count.
+     */
+    public static void record(UpstreamFetchCount count) {
+        if (count != null) {
+            count.fetches.incrementAndGet();
+        }
+    }
+
+    int get() {
+        return fetches.get();
+    }
+
+}
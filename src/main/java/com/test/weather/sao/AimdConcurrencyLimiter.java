@@ -0,0 +1,89 @@
+package com.test.weather.sao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `AimdConcurrencyLimiter` class bounds the number of concurrent calls to a dependency with a
+ * limit that adapts to how the dependency behaves. Every call that completes within the latency
+ * target raises the limit additively, by about one per limit's worth of calls; a slow, failed or
+ * timed-out call cuts it multiplicatively by `backoffRatio`. The limit stays between `minLimit` and
+ * `maxLimit`, and `maxLimit` doubles as the bulkhead size. Calls over the limit are rejected rather
+ * than queued.
+ *
+ * @author N Javeed
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyTargetNanos;
+
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong limitBits;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTargetMillis, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * @return Whether a call may start now. Every permitted call must be followed by exactly one of
+     * `onSuccess`, `onDropped` or `onCancelled`.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos > latencyTargetNanos) {
+            decrease();
+        } else {
+            limitBits.getAndUpdate(bits -> {
+                double limit = Double.longBitsToDouble(bits);
+                return Double.doubleToRawLongBits(Math.min(maxLimit, limit + 1.0 / limit));
+            });
+        }
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    public void onCancelled() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        limitBits.getAndUpdate(bits -> Double.doubleToRawLongBits(
+                Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio)));
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.test.weather.sao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * The `CircuitBreaker` class stops calls to a failing dependency. While closed it tracks the outcome
+ * of the last `windowSize` calls and opens once at least `minimumCalls` were made and the failure rate
+ * reaches `failureRateThreshold`. While open every call is rejected; after `openDuration` it lets
+ * `halfOpenProbes` trial calls through, closing again if all of them succeed and reopening on the
+ * first failure.
+ *
+ * State changes are guarded by a `ReentrantLock` rather than `synchronized`, so a virtual thread
+ * contending for the breaker parks instead of pinning its carrier thread.
+ *
+ * @author N Javeed
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+
+    private final int minimumCalls;
+
+    private final long openNanos;
+
+    private final int halfOpenProbes;
+
+    private final LongSupplier nanoClock;
+
+    private final boolean[] failed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int next;
+
+    private int calls;
+
+    private int failures;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int probesInFlight;
+
+    private int probeSuccesses;
+
+    public CircuitBreaker(int windowSize, double failureRateThreshold, int minimumCalls, long openDurationMillis,
+            int halfOpenProbes, LongSupplier nanoClock) {
+        this.failed = new boolean[windowSize];
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenProbes = halfOpenProbes;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return Whether a call may go ahead. Every permitted call must be followed by exactly one of
+     * `onSuccess`, `onFailure` or `onCancelled`.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            if (probesInFlight + probeSuccesses >= halfOpenProbes) {
+                return false;
+            }
+            probesInFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                probesInFlight--;
+                if (++probeSuccesses >= halfOpenProbes) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                    open();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permitted call that was never made, without counting an outcome.
+     */
+    public void onCancelled() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return How long until an open breaker lets a trial call through, or 0 when it is not open.
+     */
+    public long getRetryAfterMillis() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return 0;
+            }
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (nanoClock.getAsLong() - openedAt)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if (calls == failed.length) {
+            if (failed[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+        next = 0;
+    }
+
+}
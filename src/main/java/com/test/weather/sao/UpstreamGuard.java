@@ -0,0 +1,136 @@
+package com.test.weather.sao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The `UpstreamGuard` class is the resilience layer every call to the external API goes through. A
+ * call is refused with an `UpstreamUnavailableException`, without reaching the external API, while the
+ * circuit breaker is open or when the adaptive concurrency limit is reached. The limit's upper bound is
+ * the bulkhead: however slow the external API gets, no more than `weather.upstream.limit.max` callers
+ * are ever blocked on it, and the rest fail fast so the service can fall back to a stale reading.
+ *
+ * @author N Javeed
+ */
+@Component
+public class UpstreamGuard {
+
+    private final CircuitBreaker breaker;
+
+    private final AimdConcurrencyLimiter limiter;
+
+    /**
+     * A call to the external API that may throw a checked exception.
+     */
+    @FunctionalInterface
+    public interface UpstreamCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public UpstreamGuard(CircuitBreaker breaker, AimdConcurrencyLimiter limiter) {
+        this.breaker = breaker;
+        this.limiter = limiter;
+    }
+
+    @Autowired
+    public UpstreamGuard(MeterRegistry registry,
+            @Value("${weather.upstream.breaker.window-size}") int windowSize,
+            @Value("${weather.upstream.breaker.failure-rate}") double failureRate,
+            @Value("${weather.upstream.breaker.minimum-calls}") int minimumCalls,
+            @Value("${weather.upstream.breaker.open-ms}") long openMs,
+            @Value("${weather.upstream.breaker.half-open-probes}") int halfOpenProbes,
+            @Value("${weather.upstream.limit.initial}") int initialLimit,
+            @Value("${weather.upstream.limit.min}") int minLimit,
+            @Value("${weather.upstream.limit.max}") int maxLimit,
+            @Value("${weather.upstream.limit.latency-target-ms}") long latencyTargetMs,
+            @Value("${weather.upstream.limit.backoff-ratio}") double backoffRatio) {
+        this(new CircuitBreaker(windowSize, failureRate, minimumCalls, openMs, halfOpenProbes, System::nanoTime),
+                new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTargetMs, backoffRatio));
+        Gauge.builder("weather.upstream.limit", limiter, AimdConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for the external API")
+                .register(registry);
+        Gauge.builder("weather.upstream.limit.in-flight", limiter, AimdConcurrencyLimiter::getInFlight)
+                .description("Calls to the external API admitted by the concurrency limit and not yet completed")
+                .register(registry);
+        Gauge.builder("weather.upstream.breaker.open", breaker, b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the circuit breaker around the external API is open or half-open")
+                .register(registry);
+    }
+
+    /**
+     * The function makes a blocking call to the external API if the breaker and the limiter allow it,
+     * and feeds its outcome and latency back to both.
+     *
+     * @throws UpstreamUnavailableException when the call is refused without being made.
+     */
+    public <T, E extends Exception> T call(UpstreamCall<T, E> call) throws E {
+        acquire();
+        long start = System.nanoTime();
+        try {
+            T value = call.call();
+            limiter.onSuccess(System.nanoTime() - start);
+            breaker.onSuccess();
+            return value;
+        } catch (Exception | Error e) {
+            limiter.onDropped();
+            breaker.onFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * The function is the non-blocking form of `call`. A refused call returns a future that has already
+     * failed with an `UpstreamUnavailableException`.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        try {
+            acquire();
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error e) {
+            limiter.onDropped();
+            breaker.onFailure();
+            throw e;
+        }
+        return future.whenComplete((value, e) -> {
+            if (e != null) {
+                limiter.onDropped();
+                breaker.onFailure();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+                breaker.onSuccess();
+            }
+        });
+    }
+
+    private void acquire() {
+        if (!breaker.tryAcquire()) {
+            throw new UpstreamUnavailableException("External API circuit is open", breaker.getRetryAfterMillis());
+        }
+        if (!limiter.tryAcquire()) {
+            breaker.onCancelled();
+            throw new UpstreamUnavailableException("External API concurrency limit reached", 1000);
+        }
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+}
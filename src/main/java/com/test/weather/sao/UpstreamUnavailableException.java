@@ -0,0 +1,21 @@
+package com.test.weather.sao;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a call to the external API is refused locally, because the circuit breaker is open or
+ * the concurrency limit is reached, without the external API being called.
+ *
+ * @author N Javeed
+ */
+@Getter
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public UpstreamUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.test.weather.sao;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -15,14 +16,37 @@ public class WeatherApi {
     private ObjectMapper mapper;
 
     public String getWeather(String zipCode) throws JsonProcessingException {
+        return mapper.writeValueAsString(fetch(zipCode));
+    }
+
+    /**
+     * The function returns the external API's response body as raw bytes, ready for
+     * `WeatherReadingDecoder` to stream through without building a `String` first.
+     */
+    public byte[] getWeatherBytes(String zipCode) throws JsonProcessingException {
+        return mapper.writeValueAsBytes(fetch(zipCode));
+    }
+
+    /**
+     * The function requests the external API without blocking the caller. The returned future
+     * completes with the raw response body; cancelling it abandons the call.
+     */
+    public CompletableFuture<byte[]> getWeatherAsync(String zipCode) {
+        try {
+            return CompletableFuture.completedFuture(mapper.writeValueAsBytes(fetch(zipCode)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Map<String, String> fetch(String zipCode) {
         // Connect with external API 
-        Map<String, String> response = Map.of
+        return Map.of
         ("location", zipCode, 
         "temperature", "27.4", 
         "lowTemperature", "23.0", 
         "highTemperature", "29.2", 
         "unit", "celsius");
-        return mapper.writeValueAsString(response);
     }
     
 }
@@ -0,0 +1,179 @@
+package com.test.weather.sao;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `WeatherReadingDecoder` class decodes the external API's payload straight into a canonical
+ * `WeatherReading` with Jackson's streaming parser. It skips the intermediate `Map<String, String>`
+ * and, for plain decimal temperatures, the per-field `String` copies: numbers are parsed from the
+ * parser's character buffer and the unit is matched in place.
+ *
+ * @author N Javeed
+ */
+@Component
+public class WeatherReadingDecoder {
+
+    private static final Unit[] UNITS = Unit.values();
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final JsonFactory factory;
+
+    public WeatherReadingDecoder(ObjectMapper mapper) {
+        this.factory = mapper.getFactory();
+    }
+
+    /**
+     * The function decodes an upstream payload held in memory.
+     * 
+     * @param payload The `payload` parameter is the raw JSON body returned by the external API.
+     * @return The canonical reading, stamped with the current time.
+     */
+    public WeatherReading decode(byte[] payload) throws IOException {
+        try (JsonParser parser = factory.createParser(payload)) {
+            return decode(parser);
+        }
+    }
+
+    /**
+     * The function decodes an upstream payload as it is read from a stream.
+     * 
+     * @param payload The `payload` parameter is the JSON body returned by the external API.
+     * @return The canonical reading, stamped with the current time.
+     */
+    public WeatherReading decode(InputStream payload) throws IOException {
+        try (JsonParser parser = factory.createParser(payload)) {
+            return decode(parser);
+        }
+    }
+
+    private WeatherReading decode(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object from the external API");
+        }
+        double current = Double.NaN;
+        double low = Double.NaN;
+        double high = Double.NaN;
+        Unit unit = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Field names are canonicalized by the parser, so this does not allocate per payload
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "temperature" -> current = readTemperature(parser);
+                case "lowTemperature" -> low = readTemperature(parser);
+                case "highTemperature" -> high = readTemperature(parser);
+                case "unit" -> unit = readUnit(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (Double.isNaN(current) || Double.isNaN(low) || Double.isNaN(high) || unit == null) {
+            throw new IllegalArgumentException("Incomplete weather response from external API");
+        }
+        return WeatherReading.builder()
+                .currentTemperature(current)
+                .lowTemperature(low)
+                .highTemperature(high)
+                .unit(unit)
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+    }
+
+    private static double readTemperature(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getDoubleValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Expected a temperature, got " + token);
+        }
+        double value = parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        return Double.isNaN(value) ? Double.parseDouble(parser.getText()) : value;
+    }
+
+    /**
+     * Parses a plain decimal such as `-27.4` without allocating. The result is exact as long as the
+     * digits fit in 53 bits and there are at most 22 fraction digits, since both operands of the
+     * division are then exactly representable. Anything else returns NaN so the caller can fall back
+     * to `Double.parseDouble`.
+     */
+    static double parseDecimal(char[] text, int offset, int length) {
+        int end = offset + length;
+        int index = offset;
+        boolean negative = false;
+        if (index < end && (text[index] == '-' || text[index] == '+')) {
+            negative = text[index] == '-';
+            index++;
+        }
+        long mantissa = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; index < end; index++) {
+            char c = text[index];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return Double.NaN;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+            if (scale >= 0) {
+                scale++;
+            }
+            if (mantissa >= MAX_EXACT_MANTISSA) {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        double value = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static Unit readUnit(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Expected a unit, got " + parser.currentToken());
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (Unit unit : UNITS) {
+            if (equalsIgnoreCase(unit.name(), text, offset, length)) {
+                return unit;
+            }
+        }
+        throw new IllegalArgumentException("Unknown unit from external API: " + parser.getText());
+    }
+
+    private static boolean equalsIgnoreCase(String expected, char[] text, int offset, int length) {
+        if (expected.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(text[offset + i]) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,283 @@
+package com.test.weather.series;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.test.weather.model.cache.ReadingSummary;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.utility.UnitConversion;
+
+/**
+ * The `ReadingSeries` class records every fetched reading in a `ReadingSeriesLog` and indexes it by
+ * zip code. Each zip code keeps the numbers of its rows in time order, so a range query binary
+ * searches for the start of the window and then scans the log's primitive columns, and a ring of
+ * daily rollups covering the last `rollupDays` days. Temperatures are recorded in Celsius.
+ *
+ * The index and rollups live in memory and are rebuilt from the log when it is opened. Once the log
+ * deletes a segment, zip codes none of whose rows are left are dropped with their rollups, as they
+ * would be on reopening.
+ *
+ * @author N Javeed
+ */
+public class ReadingSeries implements Closeable {
+
+    private final ReadingSeriesLog log;
+
+    private final int rollupDays;
+
+    private final ZoneId zone;
+
+    private final ConcurrentMap<Integer, ZipSeries> byZip = new ConcurrentHashMap<>();
+
+    // The first row of the log when zip codes were last pruned
+    private final AtomicLong prunedBelow;
+
+    public ReadingSeries(ReadingSeriesLog log, int rollupDays, ZoneId zone) {
+        this.log = log;
+        this.rollupDays = rollupDays;
+        this.zone = zone;
+        log.forEach((row, values) -> {
+            ZipSeries series = byZip.computeIfAbsent(values.zip, zip -> new ZipSeries(rollupDays));
+            if (values.timestamp > series.lastTimestamp) {
+                series.add(row, values.timestamp, values.low, values.high, values.current, dayOf(values.timestamp), log.getFirstRow());
+            }
+        });
+        this.prunedBelow = new AtomicLong(log.getFirstRow());
+    }
+
+    /**
+     * Appends the reading to the zip code's series, unless a reading fetched at the same time or later
+     * was already recorded.
+     */
+    public void record(int zip, WeatherReading reading) throws IOException {
+        Unit from = reading.getUnit();
+        double current = UnitConversion.convert(reading.getCurrentTemperature(), from, Unit.CELSIUS);
+        double low = UnitConversion.convert(reading.getLowTemperature(), from, Unit.CELSIUS);
+        double high = UnitConversion.convert(reading.getHighTemperature(), from, Unit.CELSIUS);
+        long timestamp = reading.getFetchedAt();
+
+        while (true) {
+            ZipSeries series = byZip.computeIfAbsent(zip, key -> new ZipSeries(rollupDays));
+            series.lock.lock();
+            try {
+                if (series.pruned) {
+                    // Dropped from the index after we looked it up; record into its replacement
+                    continue;
+                }
+                if (timestamp <= series.lastTimestamp) {
+                    return;
+                }
+                long row = log.append(zip, timestamp, current, low, high);
+                series.add(row, timestamp, low, high, current, dayOf(timestamp), log.getFirstRow());
+                break;
+            } finally {
+                series.lock.unlock();
+            }
+        }
+        pruneDeletedZips();
+    }
+
+    /**
+     * The function summarizes the zip code's readings fetched within `[fromMillis, toMillis]`.
+     *
+     * @return The lowest low, highest high and average current temperature in Celsius, or
+     * `SeriesStats.EMPTY` when no reading falls in the window.
+     */
+    public SeriesStats stats(int zip, long fromMillis, long toMillis) {
+        ZipSeries series = byZip.get(zip);
+        if (series == null) {
+            return SeriesStats.EMPTY;
+        }
+        long[] rows;
+        int size;
+        series.lock.lock();
+        try {
+            // Appends write past `size` and compaction copies, so the snapshot never changes under us
+            rows = series.rows;
+            size = series.size;
+        } finally {
+            series.lock.unlock();
+        }
+
+        ReadingSeriesLog.Row values = new ReadingSeriesLog.Row();
+        long samples = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (int i = firstAtOrAfter(rows, size, fromMillis, values); i < size; i++) {
+            if (!log.read(rows[i], values)) {
+                continue;
+            }
+            if (values.timestamp > toMillis) {
+                break;
+            }
+            samples++;
+            min = Math.min(min, values.low);
+            max = Math.max(max, values.high);
+            sum += values.current;
+        }
+        return samples == 0 ? SeriesStats.EMPTY : new SeriesStats(samples, min, max, sum / samples);
+    }
+
+    /**
+     * @return The zip code's daily rollups, in Celsius, newest day first; empty when nothing was
+     * recorded for it.
+     */
+    public List<ReadingSummary> recentDays(int zip) {
+        ZipSeries series = byZip.get(zip);
+        if (series == null) {
+            return List.of();
+        }
+        series.lock.lock();
+        try {
+            List<ReadingSummary> days = new ArrayList<>(rollupDays);
+            for (int age = 0; age < rollupDays && series.newest >= 0; age++) {
+                int slot = Math.floorMod(series.newest - age, rollupDays);
+                if (series.dayCount[slot] == 0 || series.days[slot] <= series.days[series.newest] - rollupDays) {
+                    break;
+                }
+                days.add(new ReadingSummary(LocalDate.ofEpochDay(series.days[slot]), series.dayLow[slot],
+                        series.dayHigh[slot], series.daySum[slot] / series.dayCount[slot], Unit.CELSIUS));
+            }
+            return days;
+        } finally {
+            series.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * The function drops the zip codes whose rows all belonged to segments the log has deleted since
+     * the last call. One caller sweeps the index per deleted segment; it runs outside any series lock,
+     * locking one series at a time.
+     */
+    private void pruneDeletedZips() {
+        long firstRow = log.getFirstRow();
+        long pruned = prunedBelow.get();
+        if (firstRow <= pruned || !prunedBelow.compareAndSet(pruned, firstRow)) {
+            return;
+        }
+        byZip.forEach((zip, series) -> {
+            series.lock.lock();
+            try {
+                if (series.size == 0 || series.rows[series.size - 1] < firstRow) {
+                    series.pruned = true;
+                    byZip.remove(zip, series);
+                }
+            } finally {
+                series.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * The function finds the first live row of the series fetched at or after `fromMillis`. Rows of
+     * deleted segments form a prefix of the series and are skipped first.
+     */
+    private int firstAtOrAfter(long[] rows, int size, long fromMillis, ReadingSeriesLog.Row values) {
+        long firstRow = log.getFirstRow();
+        int low = lowerBound(rows, size, firstRow);
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (!log.read(rows[mid], values) || values.timestamp < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(long[] rows, int size, long row) {
+        int index = Arrays.binarySearch(rows, 0, size, row);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private long dayOf(long timestamp) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), zone).toEpochDay();
+    }
+
+    /**
+     * The rows of one zip code in time order, and its daily rollups in a ring indexed by `newest`.
+     * Guarded by `lock`.
+     */
+    private static final class ZipSeries {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private long[] rows = new long[8];
+
+        private int size;
+
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        private final long[] days;
+
+        private final double[] dayLow;
+
+        private final double[] dayHigh;
+
+        private final double[] daySum;
+
+        private final int[] dayCount;
+
+        private int newest = -1;
+
+        // Set once the series is removed from the index; a recorder holding it looks it up again
+        private boolean pruned;
+
+        private ZipSeries(int rollupDays) {
+            this.days = new long[rollupDays];
+            this.dayLow = new double[rollupDays];
+            this.dayHigh = new double[rollupDays];
+            this.daySum = new double[rollupDays];
+            this.dayCount = new int[rollupDays];
+        }
+
+        private void add(long row, long timestamp, double low, double high, double current, long day, long firstRow) {
+            if (size > 0 && rows[0] < firstRow) {
+                // Drop rows of deleted segments into a new array; a reader may still hold the old one
+                int live = lowerBound(rows, size, firstRow);
+                rows = Arrays.copyOfRange(rows, live, Math.max(live + 8, size + size / 2));
+                size -= live;
+            } else if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+            lastTimestamp = timestamp;
+
+            if (newest < 0 || day > days[newest]) {
+                newest = (newest + 1) % days.length;
+                days[newest] = day;
+                dayLow[newest] = low;
+                dayHigh[newest] = high;
+                daySum[newest] = 0;
+                dayCount[newest] = 0;
+            }
+            if (day == days[newest]) {
+                dayLow[newest] = Math.min(dayLow[newest], low);
+                dayHigh[newest] = Math.max(dayHigh[newest], high);
+                daySum[newest] += current;
+                dayCount[newest]++;
+            }
+        }
+
+    }
+
+}
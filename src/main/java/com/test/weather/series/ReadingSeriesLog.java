@@ -0,0 +1,299 @@
+package com.test.weather.series;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The `ReadingSeriesLog` class is an append-only log of readings kept in memory-mapped segment files.
+ * Each segment holds `segmentRows` rows stored column by column, so a scan over one column reads
+ * contiguous primitives:
+ *
+ * <pre>
+ * header   64 bytes: magic, version, segment rows, committed row count
+ * zip      int[segmentRows]
+ * time     long[segmentRows], epoch milliseconds
+ * current  double[segmentRows], Celsius
+ * low      double[segmentRows]
+ * high     double[segmentRows]
+ * </pre>
+ *
+ * <p>A row is written first and then committed by bumping the count in the header, so a crash leaves
+ * at most an uncommitted row that is overwritten on the next append. When the newest segment is full a
+ * new one is started, and past `maxSegments` the oldest is deleted.
+ *
+ * <p>Rows are addressed by a row number that keeps growing across segments. Readers need no lock:
+ * a row below the committed count never changes, and reading a row of a deleted segment reports it
+ * as gone.
+ *
+ * @author N Javeed
+ */
+public class ReadingSeriesLog implements Closeable {
+
+    private static final int MAGIC = 0x57465331; // "WFS1"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int COUNT_OFFSET = 12;
+
+    // zip, time, current, low, high
+    private static final int ROW_BYTES = 4 + 8 + 8 + 8 + 8;
+
+    private static final String SEGMENT_PREFIX = "series-";
+
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+
+    private final int segmentRows;
+
+    private final int maxSegments;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Oldest first; replaced, never mutated, so readers can use it without the lock
+    private volatile Segment[] segments;
+
+    /**
+     * The values of one row, filled in by `read`.
+     */
+    public static final class Row {
+
+        public int zip;
+
+        public long timestamp;
+
+        public double current;
+
+        public double low;
+
+        public double high;
+
+    }
+
+    /**
+     * Receives each committed row with its row number.
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long row, Row values);
+    }
+
+    /**
+     * Opens the log in `directory`, creating it if needed. Existing segments with the same layout are
+     * kept; others are started afresh.
+     *
+     * @param directory The `directory` parameter holds the segment files.
+     * @param segmentRows The `segmentRows` parameter is the number of rows per segment.
+     * @param maxSegments The `maxSegments` parameter is the number of segments kept before the oldest
+     * is deleted.
+     */
+    public ReadingSeriesLog(Path directory, int segmentRows, int maxSegments) throws IOException {
+        if ((long) HEADER_SIZE + (long) segmentRows * ROW_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A segment of " + segmentRows + " rows does not fit in one mapping");
+        }
+        this.directory = directory;
+        this.segmentRows = segmentRows;
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(directory);
+
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                numbers.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        numbers.sort(null);
+        List<Segment> opened = new ArrayList<>();
+        for (long number : numbers.subList(Math.max(0, numbers.size() - this.maxSegments), numbers.size())) {
+            opened.add(openSegment(number));
+        }
+        for (long number : numbers.subList(0, Math.max(0, numbers.size() - this.maxSegments))) {
+            Files.deleteIfExists(pathOf(number));
+        }
+        if (opened.isEmpty()) {
+            opened.add(openSegment(0));
+        }
+        this.segments = opened.toArray(Segment[]::new);
+    }
+
+    /**
+     * Appends a row and commits it.
+     *
+     * @return The row number of the appended row.
+     */
+    public long append(int zip, long timestamp, double current, double low, double high) throws IOException {
+        appendLock.lock();
+        try {
+            Segment segment = segments[segments.length - 1];
+            if (segment.count == segmentRows) {
+                segment = roll(segment.number + 1);
+            }
+            int row = segment.count;
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.putInt(zipOffset(row), zip);
+            buffer.putLong(timeOffset(row), timestamp);
+            buffer.putDouble(currentOffset(row), current);
+            buffer.putDouble(lowOffset(row), low);
+            buffer.putDouble(highOffset(row), high);
+            buffer.putInt(COUNT_OFFSET, row + 1);
+            segment.count = row + 1;
+            return segment.number * segmentRows + row;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Reads a committed row.
+     *
+     * @return Whether the row exists; `false` once its segment has been deleted.
+     */
+    public boolean read(long row, Row into) {
+        Segment[] current = segments;
+        long index = row / segmentRows - current[0].number;
+        if (row < 0 || index < 0 || index >= current.length) {
+            return false;
+        }
+        Segment segment = current[(int) index];
+        int offset = (int) (row % segmentRows);
+        if (offset >= segment.count) {
+            return false;
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        into.zip = buffer.getInt(zipOffset(offset));
+        into.timestamp = buffer.getLong(timeOffset(offset));
+        into.current = buffer.getDouble(currentOffset(offset));
+        into.low = buffer.getDouble(lowOffset(offset));
+        into.high = buffer.getDouble(highOffset(offset));
+        return true;
+    }
+
+    /**
+     * Passes every committed row, oldest first, to the consumer. The `Row` is reused between calls.
+     */
+    public void forEach(RowConsumer consumer) {
+        Row values = new Row();
+        for (Segment segment : segments) {
+            long first = segment.number * segmentRows;
+            for (int offset = 0; offset < segment.count; offset++) {
+                if (read(first + offset, values)) {
+                    consumer.accept(first + offset, values);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The oldest row number still stored; rows below it have been deleted.
+     */
+    public long getFirstRow() {
+        return segments[0].number * segmentRows;
+    }
+
+    /**
+     * Flushes the mapped segments to disk and closes their files.
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment roll(long number) throws IOException {
+        Segment[] current = segments;
+        current[current.length - 1].buffer.force();
+        Segment next = openSegment(number);
+        int kept = Math.min(current.length, maxSegments - 1);
+        Segment[] rolled = new Segment[kept + 1];
+        System.arraycopy(current, current.length - kept, rolled, 0, kept);
+        rolled[kept] = next;
+        segments = rolled;
+        for (int i = 0; i < current.length - kept; i++) {
+            // The mapping stays valid for readers still holding it until it is collected
+            current[i].channel.close();
+            Files.deleteIfExists(pathOf(current[i].number));
+        }
+        return next;
+    }
+
+    private Segment openSegment(long number) throws IOException {
+        long fileSize = HEADER_SIZE + (long) segmentRows * ROW_BYTES;
+        FileChannel channel = FileChannel.open(pathOf(number), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean compatible = channel.size() == fileSize;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        int count = buffer.getInt(COUNT_OFFSET);
+        if (!compatible || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != segmentRows
+                || count < 0 || count > segmentRows) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, segmentRows);
+            buffer.putInt(COUNT_OFFSET, 0);
+            count = 0;
+        }
+        return new Segment(number, channel, buffer, count);
+    }
+
+    private Path pathOf(long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%012d", number) + SEGMENT_SUFFIX);
+    }
+
+    private int zipOffset(int row) {
+        return HEADER_SIZE + row * 4;
+    }
+
+    private int timeOffset(int row) {
+        return HEADER_SIZE + segmentRows * 4 + row * 8;
+    }
+
+    private int currentOffset(int row) {
+        return HEADER_SIZE + segmentRows * 12 + row * 8;
+    }
+
+    private int lowOffset(int row) {
+        return HEADER_SIZE + segmentRows * 20 + row * 8;
+    }
+
+    private int highOffset(int row) {
+        return HEADER_SIZE + segmentRows * 28 + row * 8;
+    }
+
+    private static final class Segment {
+
+        private final long number;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        // Rows committed; written under the append lock, read without it
+        private volatile int count;
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer, int count) {
+            this.number = number;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.count = count;
+        }
+
+    }
+
+}
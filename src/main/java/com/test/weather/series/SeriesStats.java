@@ -0,0 +1,13 @@
+package com.test.weather.series;
+
+/**
+ * The `SeriesStats` record summarizes the readings of a zip code within a time window, in Celsius:
+ * the lowest low, the highest high and the average current temperature over `samples` readings.
+ *
+ * @author N Javeed
+ */
+public record SeriesStats(long samples, double min, double max, double average) {
+
+    public static final SeriesStats EMPTY = new SeriesStats(0, Double.NaN, Double.NaN, Double.NaN);
+
+}
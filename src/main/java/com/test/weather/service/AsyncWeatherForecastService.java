@@ -0,0 +1,12 @@
+package com.test.weather.service;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.Unit;
+
+public interface AsyncWeatherForecastService {
+
+    public CompletableFuture<ForecastResult> getForecastAsync(int zipCode, Unit unit);
+    
+}
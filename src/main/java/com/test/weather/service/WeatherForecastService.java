@@ -1,12 +1,35 @@
 package com.test.weather.service;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.BatchForecastResponse;
+import com.test.weather.model.response.HistoryResponse;
 import com.test.weather.model.response.WeatherAPIResponse;
 
 public interface WeatherForecastService {
 
-    public WeatherAPIResponse getForecast(Map<String, String> requestParams) throws JsonProcessingException;
+    public WeatherAPIResponse getForecast(Map<String, String> requestParams) throws IOException;
+
+    public ForecastResult getForecastResult(int zipCode, Unit unit) throws IOException;
+
+    public ForecastResult getLocalForecastResult(int zipCode, Unit unit) throws IOException;
+
+    public BatchForecastResponse getForecasts(List<Integer> zipCodes, Unit unit);
+
+    public WeatherReading peekReading(int zipCode);
+
+    public void refreshIfDue(int zipCode);
+
+    public boolean isRefreshDue(int zipCode);
+
+    public void refresh(int zipCode);
+
+    public HistoryResponse getHistory(int zipCode, Unit unit, Instant from, Instant to);
     
 }
@@ -1,27 +1,61 @@
 package com.test.weather.service;
 
+import static com.test.weather.configuration.BatchConfiguration.FORECAST_FETCH_EXECUTOR;
 import static com.test.weather.utility.Constants.ZIP_CODE;
 import static com.test.weather.utility.Constants.UNIT;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.weather.cache.TtlPolicy;
+import com.test.weather.cluster.ClusterRouter;
+import com.test.weather.cluster.PeerReading;
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.geo.NearbyZipFinder;
+import com.test.weather.metrics.ForecastMetrics;
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.CacheStatus;
 import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.BatchForecastResponse;
+import com.test.weather.model.response.HistoryResponse;
 import com.test.weather.model.response.WeatherAPIResponse;
+import com.test.weather.ratelimit.UpstreamFetchCount;
+import com.test.weather.sao.UpstreamGuard;
 import com.test.weather.sao.WeatherApi;
+import com.test.weather.sao.WeatherReadingDecoder;
+import com.test.weather.series.ReadingSeries;
+import com.test.weather.series.SeriesStats;
+import com.test.weather.subscription.ForecastBroadcaster;
+import com.test.weather.utility.FanOutScope;
+import com.test.weather.utility.SingleFlight;
 import com.test.weather.utility.UnitConversion;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * The `WeatherForecastServiceImpl` class is a service implementation that retrieves weather forecasts
@@ -29,18 +63,110 @@ import lombok.RequiredArgsConstructor;
  * 
  * @author N Javeed
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class WeatherForecastServiceImpl implements WeatherForecastService {
+public class WeatherForecastServiceImpl implements WeatherForecastService, AsyncWeatherForecastService {
 
     private final WeatherApi apiClient;
 
     private static final String WEATHER_CACHE = "weatherCache";
 
-    private final ObjectMapper mapper;
+    private final WeatherReadingDecoder decoder;
+
+    private final UpstreamGuard upstreamGuard;
+
+    private final ForecastMetrics metrics;
+
+    private final ForecastEncoder encoder;
 
     private final CacheManager cacheManager;
 
+    private final TtlPolicy ttlPolicy;
+
+    private final ForecastBroadcaster broadcaster;
+
+    private final ObjectProvider<NearbyZipFinder> nearbyZipFinderProvider;
+
+    private final ObjectProvider<ClusterRouter> clusterRouterProvider;
+
+    private final ObjectProvider<ReadingSeries> readingSeriesProvider;
+
+    @Qualifier(FORECAST_FETCH_EXECUTOR)
+    private final ExecutorService fetchExecutor;
+
+    @Value("${weather.cache.refresh-ahead.enabled}")
+    private final boolean refreshAhead;
+
+    @Value("${weather.cache.refresh-ahead.fraction}")
+    private final double refreshFraction;
+
+    @Value("${weather.cache.refresh-ahead.grace-minutes}")
+    private final long graceMinutes;
+
+    @Value("${weather.upstream.timeout-ms}")
+    private final long upstreamTimeoutMs;
+
+    @Value("${weather.upstream.fallback.max-size}")
+    private final long fallbackMaxSize;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private final boolean virtualThreads;
+
+    @Value("${weather.batch.max-concurrency}")
+    private final int batchMaxConcurrency;
+
+    @Value("${weather.batch.timeout-ms}")
+    private final long batchTimeoutMs;
+
+    private final SingleFlight<Integer, LoadedReading, IOException> inFlightFetches = new SingleFlight<>(IOException.class);
+
+    private final Set<Integer> backgroundRefreshes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The last reading fetched for each zip code, kept past its TTL so it can be served as stale when
+     * the external API fails or is refused by the `UpstreamGuard`.
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Integer, WeatherReading> lastKnownReadings;
+
+    /**
+     * Finds nearby zip codes whose cached readings may answer a miss; `null` unless
+     * `weather.geo-fallback.enabled` is set.
+     */
+    private NearbyZipFinder nearbyZipFinder;
+
+    /**
+     * Routes misses to the zip code's owning node; `null` unless `weather.cluster.enabled` is set.
+     */
+    private ClusterRouter clusterRouter;
+
+    /**
+     * Records every fetched reading; `null` unless `weather.series.enabled` is set.
+     */
+    private ReadingSeries readingSeries;
+
+    /**
+     * Bounds the batch fetches running on virtual threads, which have no pool size to do it.
+     */
+    private Semaphore batchFetchPermits;
+
+    /**
+     * A reading returned by a fetch, with the status the owning node served it with when it came from
+     * another cluster node; `null` when this node loaded it, or the owner did not say.
+     */
+    private record LoadedReading(WeatherReading reading, CacheStatus ownerStatus) {
+    }
+
+    @PostConstruct
+    void initialize() {
+        lastKnownReadings = Caffeine.newBuilder().maximumSize(fallbackMaxSize).build();
+        nearbyZipFinder = nearbyZipFinderProvider.getIfAvailable();
+        clusterRouter = clusterRouterProvider.getIfAvailable();
+        readingSeries = readingSeriesProvider.getIfAvailable();
+        batchFetchPermits = new Semaphore(batchMaxConcurrency);
+        metrics.monitorInFlightFetches(inFlightFetches);
+    }
+
     /**
      * This Java function retrieves weather forecast data either from cache or an external API based on
      * the provided zip code.
@@ -52,91 +178,570 @@ public class WeatherForecastServiceImpl implements WeatherForecastService {
      * @return The method `getForecast` is returning a `WeatherAPIResponse` object.
      */
     @Override
-    public WeatherAPIResponse getForecast(Map<String, String> requestParams) throws JsonProcessingException {
+    public WeatherAPIResponse getForecast(Map<String, String> requestParams) throws IOException {
         String zipCode = Optional.ofNullable(requestParams.get(ZIP_CODE))
                           .orElseThrow(() -> new IllegalArgumentException("zipCode is required"));
-        String unit = requestParams.get(UNIT);
+        Unit unit = Optional.ofNullable(requestParams.get(UNIT))
+                          .map(Unit::valueOf)
+                          .orElseThrow(() -> new IllegalArgumentException("unit is required"));
 
-        String cacheKey = generateCacheKey(zipCode+unit);
+        return getForecastResult(Integer.parseInt(zipCode), unit).toResponse();
+    }
 
-        Cache.ValueWrapper valueWrapper = cacheManager.getCache(WEATHER_CACHE).get(cacheKey);
-        if (valueWrapper != null) {
-            WeatherAPIResponse response = (WeatherAPIResponse) valueWrapper.get();
-            response.setCached(true);
-            return response;
+    /**
+     * This Java function retrieves the forecast for a zip code either from cache or an external API,
+     * and returns it with the reading it was built from and how it was served, so the caller can write
+     * the pre-encoded body and derive validators from the reading.
+     * 
+     * @param zipCode The `zipCode` parameter is the zip code to forecast.
+     * @param unit The `unit` parameter is the temperature unit of the forecast.
+     * @return A `ForecastResult` for the zip code in the requested unit.
+     */
+    @Override
+    public ForecastResult getForecastResult(int zipCode, Unit unit) throws IOException {
+        return forecast(zipCode, unit, true);
+    }
+
+    /**
+     * This Java function is `getForecastResult` for requests from other cluster nodes: a miss is always
+     * fetched from the external API by this node, never forwarded to the zip code's owner, so nodes
+     * that disagree about ownership cannot forward a request back and forth. Nor is it answered with
+     * a nearby zip code's reading, which the asking node would take for the zip code's own.
+     * 
+     * @param zipCode The `zipCode` parameter is the zip code to forecast.
+     * @param unit The `unit` parameter is the temperature unit of the forecast.
+     * @return A `ForecastResult` for the zip code in the requested unit.
+     */
+    @Override
+    public ForecastResult getLocalForecastResult(int zipCode, Unit unit) throws IOException {
+        return forecast(zipCode, unit, false);
+    }
+
+    private ForecastResult forecast(int zipCode, Unit unit, boolean askOwner) throws IOException {
+        long start = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        Integer cacheKey = zipCode;
+
+        ForecastResult cached = serveWithoutFetching(cacheKey, unit, askOwner);
+        if (cached != null) {
+            metrics.recordForecast(zipCode, true, start);
+            return cached;
+        }
+
+        UpstreamFetchCount fetches = UpstreamFetchCount.current();
+        LoadedReading loaded;
+        try {
+            loaded = inFlightFetches.execute(cacheKey, () -> fetchReading(String.valueOf(zipCode), cacheKey, askOwner, fetches));
+        } catch (IOException | RuntimeException e) {
+            ForecastResult fallback = fallback(cacheKey, unit);
+            if (fallback == null) {
+                throw e;
+            }
+            return fallback;
+        } finally {
+            metrics.recordForecast(zipCode, false, start);
+        }
+        return resultOf(zipCode, loaded.reading(), unit, loadedStatus(loaded, startMillis));
+    }
+
+    /**
+     * This Java function retrieves weather forecasts for many zip codes at once. Cache hits are read in
+     * one pass and the misses are fetched from the external API in parallel, as subtasks of one
+     * `FanOutScope`: on virtual threads when `spring.threads.virtual.enabled` is set, otherwise on the
+     * shared fetch executor. Either way at most `weather.batch.max-concurrency` upstream calls run at
+     * once across batches. Each miss joins the zip code's shared flight without owning it, so a fetch
+     * still running after `weather.batch.timeout-ms` is only abandoned by this batch; it completes for
+     * the other requests waiting on it and fills the cache.
+     * 
+     * @param zipCodes The `zipCodes` parameter lists the zip codes to forecast; duplicates are
+     * answered once.
+     * @param unit The `unit` parameter is the temperature unit applied to every forecast.
+     * @return A `BatchForecastResponse` with a forecast for every zip code that succeeded and an error
+     * message for every zip code that failed or timed out.
+     */
+    @Override
+    public BatchForecastResponse getForecasts(List<Integer> zipCodes, Unit unit) {
+        Map<Integer, WeatherAPIResponse> forecasts = new LinkedHashMap<>();
+        Map<Integer, String> errors = new LinkedHashMap<>();
+        Map<Integer, Integer> approximations = new LinkedHashMap<>();
+        Map<Integer, CompletableFuture<WeatherReading>> misses = new LinkedHashMap<>();
+        UpstreamFetchCount fetches = UpstreamFetchCount.current();
+
+        try (FanOutScope<WeatherReading> scope = openFanOut()) {
+            for (Integer zipCode : new LinkedHashSet<>(zipCodes)) {
+                metrics.getHotKeys().record(zipCode);
+                ForecastResult cached = serveWithoutFetching(zipCode, unit, true);
+                if (cached != null) {
+                    forecasts.put(zipCode, cached.toResponse());
+                    if (cached.getApproximatedFrom() != null) {
+                        approximations.put(zipCode, cached.getApproximatedFrom());
+                    }
+                } else {
+                    misses.put(zipCode, scope.fork(executor -> loadReadingAsync(zipCode, executor, fetches)));
+                }
+            }
+
+            try {
+                scope.joinUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        misses.forEach((zipCode, miss) -> {
+            String error;
+            try {
+                forecasts.put(zipCode, miss.resultNow().toResponse(unit));
+                return;
+            } catch (IllegalStateException e) {
+                error = miss.state() == Future.State.FAILED ? failureMessage(miss.exceptionNow())
+                        : "Timed out after " + batchTimeoutMs + " ms";
+            }
+            ForecastResult fallback = fallback(zipCode, unit);
+            if (fallback != null) {
+                forecasts.put(zipCode, fallback.toResponse());
+            } else {
+                errors.put(zipCode, error);
+            }
+        });
+
+        return BatchForecastResponse.builder()
+                .forecasts(forecasts)
+                .errors(errors)
+                .approximations(approximations)
+                .build();
+    }
+
+    private FanOutScope<WeatherReading> openFanOut() {
+        return virtualThreads ? FanOutScope.ofVirtualThreads(batchFetchPermits) : FanOutScope.on(fetchExecutor);
+    }
+
+    private static String failureMessage(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return String.valueOf(cause.getLocalizedMessage());
+    }
+
+    /**
+     * This Java function is the non-blocking form of `getForecast`. A cache hit completes immediately;
+     * a miss joins or starts the zip code's upstream fetch without holding the calling thread.
+     * 
+     * @param zipCode The `zipCode` parameter is the zip code to forecast.
+     * @param unit The `unit` parameter is the temperature unit of the forecast.
+     * @return A future for the forecast. When the external API fails, times out or is refused it
+     * completes with the last known reading marked stale if there is one; otherwise it fails, with a
+     * `TimeoutException` after `weather.upstream.timeout-ms`. Cancelling it or timing out only
+     * abandons this caller's wait, the fetch still completes and fills the cache for later requests.
+     * The fetch is bounded too: an owner node or external API call that does not answer within
+     * `weather.upstream.timeout-ms` is given up, so a hung call cannot hold the zip code's flight.
+     */
+    @Override
+    public CompletableFuture<ForecastResult> getForecastAsync(int zipCode, Unit unit) {
+        long start = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        Integer cacheKey = zipCode;
+        ForecastResult cached = serveWithoutFetching(cacheKey, unit, true);
+        if (cached != null) {
+            metrics.recordForecast(zipCode, true, start);
+            return CompletableFuture.completedFuture(cached);
+        }
+        UpstreamFetchCount fetches = UpstreamFetchCount.current();
+        return inFlightFetches.executeAsync(cacheKey, () -> fetchReadingAsync(String.valueOf(zipCode), cacheKey, fetches))
+                .orTimeout(upstreamTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((loaded, e) -> {
+                    metrics.recordForecast(zipCode, false, start);
+                    if (e == null) {
+                        return resultOf(zipCode, loaded.reading(), unit, loadedStatus(loaded, startMillis));
+                    }
+                    ForecastResult fallback = fallback(cacheKey, unit);
+                    if (fallback == null) {
+                        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                    }
+                    return fallback;
+                });
+    }
+
+    private CompletableFuture<LoadedReading> fetchReadingAsync(String zipCode, Integer cacheKey, UpstreamFetchCount fetches) {
+        WeatherReading cached = getCachedReading(cacheKey);
+        if (cached != null && statusOf(cacheKey, cached) == CacheStatus.FRESH) {
+            return CompletableFuture.completedFuture(new LoadedReading(cached, null));
+        }
+        String owner = clusterRouter != null ? clusterRouter.remoteOwnerOf(cacheKey) : null;
+        if (owner != null) {
+            // An owner that does not answer in time is treated like one that failed
+            return clusterRouter.fetchAsync(owner, cacheKey)
+                    .completeOnTimeout(null, upstreamTimeoutMs, TimeUnit.MILLISECONDS)
+                    .thenCompose(peerReading -> peerReading != null
+                            ? CompletableFuture.completedFuture(adopt(cacheKey, peerReading))
+                            : fetchUpstreamAsync(zipCode, cacheKey, fetches));
+        }
+        return fetchUpstreamAsync(zipCode, cacheKey, fetches);
+    }
+
+    private CompletableFuture<LoadedReading> fetchUpstreamAsync(String zipCode, Integer cacheKey, UpstreamFetchCount fetches) {
+        long upstreamStart = System.nanoTime();
+        // Timed out inside the guard, so a hung call counts as a failure and gives back its permit
+        return upstreamGuard.callAsync(() -> apiClient.getWeatherAsync(zipCode).orTimeout(upstreamTimeoutMs, TimeUnit.MILLISECONDS))
+                .whenComplete((response, e) -> metrics.recordUpstream(upstreamStart))
+                .thenApply(response -> {
+                    UpstreamFetchCount.record(fetches);
+                    try {
+                        return new LoadedReading(store(cacheKey, decoder.decode(response)), null);
+                    } catch (IOException | IllegalArgumentException e) {
+                        throw new CompletionException(new RuntimeException("Error processing weather response from external API", e));
+                    }
+                });
+    }
+
+    /**
+     * The function joins or starts the zip code's flight, running a load it starts on the executor
+     * rather than on the calling thread, so that abandoning the returned future cannot interrupt a
+     * load other callers share.
+     */
+    private CompletableFuture<WeatherReading> loadReadingAsync(Integer zipCode, Executor executor, UpstreamFetchCount fetches) {
+        return inFlightFetches.executeAsync(zipCode, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetchReading(String.valueOf(zipCode), zipCode, true, fetches);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor)).thenApply(LoadedReading::reading);
+    }
+
+    private WeatherReading loadReading(Integer zipCode) {
+        try {
+            return inFlightFetches.execute(zipCode, () -> fetchReading(String.valueOf(zipCode), zipCode, true, null)).reading();
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * The function fetches the canonical reading from the external API and stores it in the cache. It
+     * runs once per zip code at a time; concurrent callers for the same zip code wait on this call and
+     * share its result. In cluster mode, a zip code owned by another reachable node is asked of that
+     * node instead, and only falls through to the external API if the owner fails. A call the external
+     * API answered is added to `fetches`, the count of the request that started the load, if any.
+     */
+    private LoadedReading fetchReading(String zipCode, Integer cacheKey, boolean askOwner, UpstreamFetchCount fetches) throws IOException {
+        // Another flight may have filled the cache between our miss and becoming the leader
+        WeatherReading cached = getCachedReading(cacheKey);
+        if (cached != null && statusOf(cacheKey, cached) == CacheStatus.FRESH) {
+            return new LoadedReading(cached, null);
         }
 
-        String response = apiClient.getWeather(zipCode);
+        String owner = askOwner && clusterRouter != null ? clusterRouter.remoteOwnerOf(cacheKey) : null;
+        if (owner != null) {
+            PeerReading peerReading = clusterRouter.fetch(owner, cacheKey);
+            if (peerReading != null) {
+                return adopt(cacheKey, peerReading);
+            }
+        }
 
+        long upstreamStart = System.nanoTime();
+        byte[] response;
         try {
-            WeatherAPIResponse apiResponse = buildResponse(response, unit);
-            apiResponse.setNextForecast(List.of((WeatherAPIResponse)apiResponse.clone()));
-            cacheManager.getCache(WEATHER_CACHE).put(cacheKey, apiResponse);
-            apiResponse.setCached(false);
+            response = upstreamGuard.call(() -> apiClient.getWeatherBytes(zipCode));
+        } finally {
+            metrics.recordUpstream(upstreamStart);
+        }
+        UpstreamFetchCount.record(fetches);
 
-            return apiResponse;
-        } catch (JsonProcessingException | IllegalArgumentException e) {
+        try {
+            return new LoadedReading(store(cacheKey, decoder.decode(response)), null);
+        } catch (IOException | IllegalArgumentException e) {
             throw new RuntimeException("Error processing weather response from external API", e);
         }
     }
 
-    private String generateCacheKey(String zipCode) {
-        return "WeatherForecastServiceImpl.getForecast:" + zipCode;
+    /**
+     * The function records a freshly fetched reading in the time series and attaches the zip code's
+     * daily rollups, encodes its response bodies, fixes its TTL from the zip code's volatility, stores
+     * it in the cache and pushes it to the zip code's subscribers.
+     */
+    private WeatherReading store(Integer cacheKey, WeatherReading reading) throws IOException {
+        if (readingSeries != null) {
+            try {
+                readingSeries.record(cacheKey, reading);
+            } catch (IOException e) {
+                // The reading is still served; only its history is incomplete
+                log.warn("Recording the reading of {} in the time series failed", cacheKey, e);
+            }
+            reading = reading.toBuilder().history(readingSeries.recentDays(cacheKey)).build();
+        }
+        encoder.encodeAll(reading);
+        ttlPolicy.record(cacheKey, reading);
+        cacheManager.getCache(WEATHER_CACHE).put(cacheKey, reading);
+        lastKnownReadings.put(cacheKey, reading);
+        broadcaster.publish(cacheKey, reading);
+        return reading;
+    }
+
+    /**
+     * The function keeps a reading obtained from the zip code's owner. It is not put in the cache,
+     * which only holds the zip codes this node serves itself; a hot zip code the owner served fresh is
+     * replicated for a short time instead, and the reading is remembered as the stale fallback and
+     * pushed to this node's subscribers.
+     */
+    private LoadedReading adopt(Integer cacheKey, PeerReading peerReading) {
+        WeatherReading reading = peerReading.toReading();
+        boolean fresh = peerReading.status() == null || peerReading.status() == CacheStatus.FRESH
+                || peerReading.status() == CacheStatus.MISS;
+        if (fresh && metrics.getHotKeys().isHot(cacheKey)) {
+            clusterRouter.replicate(cacheKey, reading);
+        }
+        lastKnownReadings.put(cacheKey, reading);
+        broadcaster.publish(cacheKey, reading);
+        return new LoadedReading(reading, peerReading.status());
     }
 
     /**
-     * The `buildResponse` function parses a JSON response into a WeatherAPIResponse object with
-     * temperature data and unit information.
+     * The function tells how a loaded reading was served. A reading from another node is served as
+     * the owner served it; otherwise a reading fetched before the request started came from the cache
+     * rather than from the external API.
+     */
+    private CacheStatus loadedStatus(LoadedReading loaded, long requestStartMillis) {
+        if (loaded.ownerStatus() != null) {
+            return loaded.ownerStatus();
+        }
+        return loaded.reading().getFetchedAt() < requestStartMillis ? CacheStatus.FRESH : CacheStatus.MISS;
+    }
+
+    /**
+     * The function answers with the last reading fetched for the zip code, marked stale, when the
+     * external API cannot be used.
      * 
-     * @param response The `buildResponse` method you provided is responsible for constructing a
-     * `WeatherAPIResponse` object from a JSON response string. It uses Jackson's ObjectMapper to map
-     * the JSON response to a `Map<String, String>` and then extracts the necessary fields to build the
-     * `WeatherAPIResponse` object.
-     * @return An instance of `WeatherAPIResponse` is being returned after parsing the input `response`
-     * string and mapping its values to the corresponding fields in the `WeatherAPIResponse` object.
-     */
-    private WeatherAPIResponse buildResponse(String response, String unit) throws JsonMappingException, JsonProcessingException {
-
-        Map<String, String> responseObject = mapper.readValue(response, new TypeReference<Map<String, String>>() {});
-        Unit responseUnit = Enum.valueOf(Unit.class, responseObject.get("unit").toUpperCase());
-        if(unit.equals(responseUnit.name())) {
-            return WeatherAPIResponse.builder()
-                .currentTemperature(Double.parseDouble(responseObject.get("temperature")))
-                .lowTemperature(Double.parseDouble(responseObject.get("lowTemperature")))
-                .highTemperature(Double.parseDouble(responseObject.get("highTemperature")))
-                .temperatureUnit(Enum.valueOf(Unit.class, responseObject.get("unit").toUpperCase()))
-                .lastUpdated(String.valueOf(LocalDateTime.now()))
-                .isCached(true)
+     * @return The stale forecast, or `null` when the zip code was never fetched.
+     */
+    private ForecastResult fallback(Integer cacheKey, Unit unit) {
+        WeatherReading lastKnown = lastKnownReadings.getIfPresent(cacheKey);
+        return lastKnown != null ? resultOf(cacheKey, lastKnown, unit, CacheStatus.STALE) : null;
+    }
+
+    private ForecastResult resultOf(int zipCode, WeatherReading reading, Unit unit, CacheStatus status) {
+        return resultOf(zipCode, reading, unit, status, null);
+    }
+
+    private ForecastResult resultOf(int zipCode, WeatherReading reading, Unit unit, CacheStatus status, Integer approximatedFrom) {
+        return ForecastResult.builder()
+                .zipCode(zipCode)
+                .reading(withHistory(approximatedFrom != null ? approximatedFrom : zipCode, reading))
+                .unit(unit)
+                .status(status)
+                .expiresAt(reading.getFetchedAt() + ttlPolicy.ttlMillis(approximatedFrom != null ? approximatedFrom : zipCode))
+                .approximatedFrom(approximatedFrom)
                 .build();
-        } else {
-            if(responseUnit.equals(Unit.FAHRENHEIT)) {
-                double currentTemperatureCelsius = UnitConversion.fahrenheitToCelsius(Double.parseDouble(responseObject.get("temperature")));
-                double lowTemperatureCelsius = UnitConversion.fahrenheitToCelsius(Double.parseDouble(responseObject.get("lowTemperature")));
-                double highTemperatureCelsius = UnitConversion.fahrenheitToCelsius(Double.parseDouble(responseObject.get("highTemperature")));
-                return WeatherAPIResponse.builder()
-                        .currentTemperature(currentTemperatureCelsius)
-                        .lowTemperature(lowTemperatureCelsius)
-                        .highTemperature(highTemperatureCelsius)
-                        .temperatureUnit(Unit.CELSIUS)
-                        .lastUpdated(String.valueOf(LocalDateTime.now()))
-                        .isCached(true)
-                        .build();
+    }
 
-            } else {
-                double currentTemperatureFahrenheit = UnitConversion.celsiusToFahrenheit(Double.parseDouble(responseObject.get("temperature")));
-                double lowTemperatureFahrenheit = UnitConversion.celsiusToFahrenheit(Double.parseDouble(responseObject.get("lowTemperature")));
-                double highTemperatureFahrenheit = UnitConversion.celsiusToFahrenheit(Double.parseDouble(responseObject.get("highTemperature")));
-                return WeatherAPIResponse.builder()
-                        .currentTemperature(currentTemperatureFahrenheit)
-                        .lowTemperature(lowTemperatureFahrenheit)
-                        .highTemperature(highTemperatureFahrenheit)
-                        .temperatureUnit(Unit.FAHRENHEIT)
-                        .lastUpdated(String.valueOf(LocalDateTime.now()))
-                        .isCached(true)
-                        .build();
+    /**
+     * The function attaches the zip code's daily rollups to a reading that lost them, when the time
+     * series is kept. The compact store, the persistent tier and other cluster nodes only keep the
+     * temperatures, so without this `nextForecast` would depend on which store answered.
+     */
+    private WeatherReading withHistory(int zipCode, WeatherReading reading) {
+        if (readingSeries == null || reading.getHistory() != null) {
+            return reading;
+        }
+        return reading.toBuilder().history(readingSeries.recentDays(zipCode)).build();
+    }
+
+    /**
+     * The function answers from the cache when it holds a usable reading for the zip code. With
+     * refresh-ahead enabled, a reading past the refresh point is still served and a background reload
+     * is started; once past its TTL it is served as stale until the end of the grace window.
+     * 
+     * @return The cached forecast in the requested unit, or `null` when the caller must fetch it.
+     */
+    private ForecastResult serveFromCache(Integer cacheKey, Unit unit) {
+        WeatherReading cached = getCachedReading(cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        CacheStatus status = statusOf(cacheKey, cached);
+        if (status == CacheStatus.MISS) {
+            return null;
+        }
+        if (status != CacheStatus.FRESH) {
+            refreshInBackground(cacheKey);
+        }
+        return resultOf(cacheKey, cached, unit, status);
+    }
 
+    /**
+     * The function answers without any fetch when it can: from the cache, then, for a zip code
+     * another cluster node owns, from the local replica, then from a nearby zip code. A request from
+     * another node (`askOwner` unset) is never answered from a nearby zip code, since the node would
+     * keep the neighbour's reading as the zip code's own.
+     * 
+     * @return The forecast, or `null` when the reading has to be fetched.
+     */
+    private ForecastResult serveWithoutFetching(Integer cacheKey, Unit unit, boolean askOwner) {
+        ForecastResult cached = serveFromCache(cacheKey, unit);
+        if (cached == null && askOwner && clusterRouter != null) {
+            WeatherReading replica = clusterRouter.getReplica(cacheKey);
+            cached = replica != null ? resultOf(cacheKey, replica, unit, CacheStatus.FRESH) : null;
+        }
+        if (cached == null && askOwner) {
+            cached = serveFromNeighbour(cacheKey, unit);
+        }
+        return cached;
+    }
+
+    /**
+     * The function answers a miss with the fresh cached reading of the nearest zip code within
+     * `weather.geo-fallback.radius-km`, when geo fallback is enabled. Only fresh readings are
+     * borrowed, so an approximated answer never triggers an upstream refresh.
+     * 
+     * @return The neighbour's forecast labelled with the zip code it came from, or `null` when no
+     * neighbour has a fresh reading.
+     */
+    private ForecastResult serveFromNeighbour(Integer cacheKey, Unit unit) {
+        if (nearbyZipFinder == null) {
+            return null;
+        }
+        for (int neighbour : nearbyZipFinder.nearby(cacheKey)) {
+            WeatherReading reading = getCachedReading(neighbour);
+            if (reading != null && statusOf(neighbour, reading) == CacheStatus.FRESH) {
+                metrics.recordApproximation();
+                return resultOf(cacheKey, reading, unit, CacheStatus.FRESH, neighbour);
             }
-        }  
+        }
+        return null;
+    }
+
+    private CacheStatus statusOf(Integer cacheKey, WeatherReading reading) {
+        long ttl = ttlPolicy.ttlMillis(cacheKey);
+        long age = System.currentTimeMillis() - reading.getFetchedAt();
+        // Readings promoted from the persistent tier keep their original fetch time
+        if (!refreshAhead) {
+            return age < ttl ? CacheStatus.FRESH : CacheStatus.MISS;
+        }
+        if (age < (long) (ttl * refreshFraction)) {
+            return CacheStatus.FRESH;
+        }
+        if (age < ttl) {
+            return CacheStatus.REFRESHING;
+        }
+        if (age < ttl + TimeUnit.MINUTES.toMillis(graceMinutes)) {
+            return CacheStatus.STALE;
+        }
+        return CacheStatus.MISS;
+    }
+
+    /**
+     * The function reloads the reading for the zip code on the fetch executor, at most once at a time
+     * per zip code. A failed reload is dropped; the cached reading keeps being served until the end of
+     * the grace window.
+     */
+    private void refreshInBackground(Integer zipCode) {
+        if (!backgroundRefreshes.add(zipCode)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> loadReading(zipCode), fetchExecutor)
+                .whenComplete((reading, e) -> backgroundRefreshes.remove(zipCode));
+    }
+
+    /**
+     * @return The cached reading for the zip code, whatever its age, without fetching it; `null` when
+     * there is none.
+     */
+    @Override
+    public WeatherReading peekReading(int zipCode) {
+        WeatherReading cached = getCachedReading(zipCode);
+        return cached != null ? withHistory(zipCode, cached) : null;
+    }
+
+    /**
+     * This Java function starts a background reload of the zip code's reading on the fetch executor
+     * when `isRefreshDue` says so.
+     */
+    @Override
+    public void refreshIfDue(int zipCode) {
+        if (isRefreshDue(zipCode)) {
+            refreshInBackground(zipCode);
+        }
+    }
+
+    /**
+     * This Java function tells whether the zip code's reading needs reloading to stay current: no
+     * fresh reading is held for it and no reload is running. A zip code owned by another cluster node
+     * is never cached here, so the reading last adopted from its owner counts instead, and the owner is
+     * asked again about once per TTL rather than on every check.
+     */
+    @Override
+    public boolean isRefreshDue(int zipCode) {
+        Integer cacheKey = zipCode;
+        if (backgroundRefreshes.contains(cacheKey)) {
+            return false;
+        }
+        WeatherReading latest = getCachedReading(cacheKey);
+        if (latest == null) {
+            latest = lastKnownReadings.getIfPresent(cacheKey);
+        }
+        return latest == null || statusOf(cacheKey, latest) != CacheStatus.FRESH;
+    }
+
+    /**
+     * This Java function reloads the zip code's reading on the calling thread, unless a reload of it
+     * is already running, and pushes it to subscribers like any other fetch.
+     *
+     * @throws CompletionException when the reload fails.
+     */
+    @Override
+    public void refresh(int zipCode) {
+        Integer cacheKey = zipCode;
+        if (!backgroundRefreshes.add(cacheKey)) {
+            return;
+        }
+        try {
+            loadReading(cacheKey);
+        } finally {
+            backgroundRefreshes.remove(cacheKey);
+        }
+    }
+
+    /**
+     * This Java function summarizes the readings recorded for the zip code within a time window by
+     * scanning the primitive columns of the time series.
+     * 
+     * @param zipCode The `zipCode` parameter is the zip code to summarize.
+     * @param unit The `unit` parameter is the temperature unit of the summary.
+     * @param from The `from` parameter is the start of the window, inclusive.
+     * @param to The `to` parameter is the end of the window, inclusive.
+     * @return A `HistoryResponse` with the lowest low, highest high and average current temperature,
+     * which are left out when no reading falls in the window.
+     * @throws IllegalStateException when `weather.series.enabled` is not set.
+     */
+    @Override
+    public HistoryResponse getHistory(int zipCode, Unit unit, Instant from, Instant to) {
+        if (readingSeries == null) {
+            throw new IllegalStateException("Reading history is not enabled");
+        }
+        SeriesStats stats = readingSeries.stats(zipCode, from.toEpochMilli(), to.toEpochMilli());
+        HistoryResponse.HistoryResponseBuilder response = HistoryResponse.builder()
+                .zipCode(zipCode)
+                .temperatureUnit(unit)
+                .from(from)
+                .to(to)
+                .samples(stats.samples());
+        if (stats.samples() > 0) {
+            response.minTemperature(UnitConversion.convert(stats.min(), Unit.CELSIUS, unit))
+                    .maxTemperature(UnitConversion.convert(stats.max(), Unit.CELSIUS, unit))
+                    .averageTemperature(UnitConversion.convert(stats.average(), Unit.CELSIUS, unit));
+        }
+        return response.build();
+    }
+
+    private WeatherReading getCachedReading(Integer cacheKey) {
+        Cache.ValueWrapper valueWrapper = cacheManager.getCache(WEATHER_CACHE).get(cacheKey);
+        return valueWrapper != null ? (WeatherReading) valueWrapper.get() : null;
+    }
+
+    /**
+     * @return The number of requests that waited on an in-flight upstream fetch for the same zip code
+     * instead of calling the external API themselves.
+     */
+    public long getCoalescedRequestCount() {
+        return inFlightFetches.getCoalescedCount();
     }
     
 }
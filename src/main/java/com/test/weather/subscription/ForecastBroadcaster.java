@@ -0,0 +1,238 @@
+package com.test.weather.subscription;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The `ForecastBroadcaster` class pushes reading changes to the clients subscribed to a zip code over
+ * server-sent events. Publishing costs a map lookup for a zip code nobody subscribes to; for one that
+ * has subscribers, an update is only pushed when the temperatures or unit differ from the last one
+ * published, and is then offered to every subscriber without blocking. The event body is built once
+ * per unit from the JSON already encoded on the reading and shared by all subscribers.
+ *
+ * Slow consumers: each subscription buffers at most the latest update per zip code, so a slow client
+ * skips intermediate readings instead of growing a queue. A client whose oldest undelivered update has
+ * waited longer than `weather.subscriptions.max-lag-ms` is disconnected; it reconnects and starts
+ * again from the current readings. Every subscription with updates in flight writes them on a virtual
+ * thread of its own, so a client whose socket stalls only holds up itself and never delays, or gets
+ * disconnected, the healthy ones, and a change fanned out to thousands of subscribers costs no more
+ * than that many virtual threads.
+ *
+ * @author N Javeed
+ */
+@Slf4j
+@Component
+public class ForecastBroadcaster {
+
+    private final ForecastEncoder encoder;
+
+    private final int maxSubscribers;
+
+    private final long timeoutMillis;
+
+    private final long maxLagNanos;
+
+    private final long heartbeatNanos;
+
+    private final ConcurrentMap<Integer, Set<ForecastSubscription>> subscribersByZip = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Integer, WeatherReading> lastPublished = new ConcurrentHashMap<>();
+
+    private final Set<ForecastSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final ExecutorService sendExecutor;
+
+    private final ScheduledExecutorService sweeper;
+
+    private final Counter published;
+
+    private final Counter unchanged;
+
+    private final Counter coalesced;
+
+    private final Counter slowConsumers;
+
+    public ForecastBroadcaster(ForecastEncoder encoder, MeterRegistry registry,
+            @Value("${weather.subscriptions.max-subscribers}") int maxSubscribers,
+            @Value("${weather.subscriptions.timeout-ms}") long timeoutMillis,
+            @Value("${weather.subscriptions.max-lag-ms}") long maxLagMillis,
+            @Value("${weather.subscriptions.heartbeat-seconds}") long heartbeatSeconds) {
+        this.encoder = encoder;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.heartbeatNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+        // A write to a slow client blocks its sender until the socket times out, so writers are never
+        // shared: a virtual thread per draining subscription, at most one per subscriber, whatever
+        // spring.threads.virtual.enabled says, as a platform thread each would not scale to thousands
+        this.sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("forecast-push-sweeper-"));
+        this.sweeper.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.SECONDS);
+
+        Gauge.builder("weather.subscriptions.active", subscriberCount, AtomicInteger::get)
+                .description("Open forecast subscriptions")
+                .register(registry);
+        Gauge.builder("weather.subscriptions.zips", subscribersByZip, ConcurrentMap::size)
+                .description("Distinct zip codes with at least one subscriber")
+                .register(registry);
+        this.published = Counter.builder("weather.subscriptions.published")
+                .description("Reading changes pushed to subscribers")
+                .register(registry);
+        this.unchanged = Counter.builder("weather.subscriptions.unchanged")
+                .description("Readings stored for subscribed zip codes that were not pushed because nothing changed")
+                .register(registry);
+        this.coalesced = Counter.builder("weather.subscriptions.coalesced")
+                .description("Undelivered updates replaced by a newer reading before they were sent")
+                .register(registry);
+        this.slowConsumers = Counter.builder("weather.subscriptions.slow-consumers")
+                .description("Subscriptions disconnected for lagging more than weather.subscriptions.max-lag-ms")
+                .register(registry);
+    }
+
+    /**
+     * The function opens a subscription to the zip codes and queues their current readings, so the
+     * client does not need an initial poll.
+     *
+     * @param zipCodes The `zipCodes` parameter is the set of zip codes to push updates for.
+     * @param unit The `unit` parameter is the temperature unit of the pushed forecasts.
+     * @param currentReading The `currentReading` parameter looks up a zip code's cached reading without
+     * fetching it, or returns `null`.
+     * @return The subscription, whose emitter is returned to the client, or `null` when
+     * `weather.subscriptions.max-subscribers` subscriptions are already open.
+     */
+    public ForecastSubscription subscribe(Set<Integer> zipCodes, Unit unit, IntFunction<WeatherReading> currentReading) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        ForecastSubscription subscription = new ForecastSubscription(new SseEmitter(timeoutMillis), zipCodes, unit, encoder, sendExecutor);
+        subscriptions.add(subscription);
+        for (Integer zipCode : zipCodes) {
+            subscribersByZip.compute(zipCode, (key, subscribers) -> {
+                Set<ForecastSubscription> zipSubscribers = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                zipSubscribers.add(subscription);
+                return zipSubscribers;
+            });
+        }
+        SseEmitter emitter = subscription.getEmitter();
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        for (Integer zipCode : zipCodes) {
+            WeatherReading reading = currentReading.apply(zipCode);
+            if (reading != null) {
+                lastPublished.putIfAbsent(zipCode, reading);
+                subscription.offer(new ForecastUpdate(zipCode, reading));
+            }
+        }
+        return subscription;
+    }
+
+    /**
+     * The function pushes a stored reading to the zip code's subscribers, unless it carries the same
+     * temperatures as the last reading pushed for it.
+     */
+    public void publish(int zipCode, WeatherReading reading) {
+        Set<ForecastSubscription> subscribers = subscribersByZip.get(zipCode);
+        if (subscribers == null) {
+            return;
+        }
+        WeatherReading previous = lastPublished.put(zipCode, reading);
+        if (previous != null && sameForecast(previous, reading)) {
+            unchanged.increment();
+            return;
+        }
+        published.increment();
+        ForecastUpdate update = new ForecastUpdate(zipCode, reading);
+        for (ForecastSubscription subscription : subscribers) {
+            if (subscription.offer(update)) {
+                coalesced.increment();
+            }
+        }
+    }
+
+    /**
+     * @return The zip codes with at least one subscriber.
+     */
+    public Set<Integer> getSubscribedZipCodes() {
+        return subscribersByZip.keySet();
+    }
+
+    private void unsubscribe(ForecastSubscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscription.close();
+        for (Integer zipCode : subscription.getZipCodes()) {
+            Set<ForecastSubscription> remaining = subscribersByZip.computeIfPresent(zipCode, (key, subscribers) -> {
+                subscribers.remove(subscription);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            if (remaining == null) {
+                lastPublished.remove(zipCode);
+            }
+        }
+    }
+
+    /**
+     * Disconnects subscriptions lagging past `weather.subscriptions.max-lag-ms` and sends heartbeats to
+     * idle ones.
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        for (ForecastSubscription subscription : subscriptions) {
+            try {
+                if (subscription.lagNanos(now) > maxLagNanos) {
+                    slowConsumers.increment();
+                    unsubscribe(subscription);
+                } else {
+                    subscription.heartbeat(now, heartbeatNanos);
+                }
+            } catch (RuntimeException e) {
+                // An exception would cancel the sweep for good
+                log.warn("Sweeping a forecast subscription failed", e);
+            }
+        }
+    }
+
+    private static boolean sameForecast(WeatherReading previous, WeatherReading reading) {
+        return previous.getUnit() == reading.getUnit()
+                && previous.getCurrentTemperature() == reading.getCurrentTemperature()
+                && previous.getLowTemperature() == reading.getLowTemperature()
+                && previous.getHighTemperature() == reading.getHighTemperature();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+        subscriptions.forEach(this::unsubscribe);
+        sendExecutor.shutdown();
+    }
+
+}
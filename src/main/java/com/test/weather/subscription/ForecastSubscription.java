@@ -0,0 +1,199 @@
+package com.test.weather.subscription;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.model.enums.Unit;
+
+import lombok.Getter;
+
+/**
+ * The `ForecastSubscription` class is one client's stream of forecast updates. Its buffer holds at
+ * most the latest undelivered update per subscribed zip code: a newer reading replaces one still
+ * waiting, so the buffer is bounded by the number of zip codes and a client that falls behind skips
+ * straight to the current readings.
+ *
+ * Offering an update never blocks the publisher. Updates are written by one drain task at a time on
+ * the send executor; how long the oldest undelivered update has waited is the subscription's lag,
+ * which the `ForecastBroadcaster` uses to disconnect slow consumers. The lag is measured from the
+ * start of the drain's pass over the buffer in which an update arrived, so a client that keeps up
+ * with a steady stream of updates shows the time of one pass, however long the drain keeps running. Disconnecting interrupts a write
+ * in progress, and the stream is completed by the drain task once no write is left, so closing never
+ * waits behind a write to a stalled client.
+ *
+ * @author N Javeed
+ */
+public class ForecastSubscription {
+
+    private static final String EVENT_NAME = "forecast";
+
+    @Getter
+    private final SseEmitter emitter;
+
+    @Getter
+    private final Set<Integer> zipCodes;
+
+    private final Unit unit;
+
+    private final ForecastEncoder encoder;
+
+    private final Executor sendExecutor;
+
+    private final ConcurrentMap<Integer, ForecastUpdate> pending = new ConcurrentHashMap<>();
+
+    // Fetch time of the last reading sent per zip code, so an older reading is never sent after a newer one
+    private final Map<Integer, Long> delivered = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    // The thread running the drain task, or null
+    private volatile Thread writer;
+
+    // System.nanoTime() when the oldest undelivered update was offered, or 0 when there is none
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+
+    private volatile long lastSentNanos = System.nanoTime();
+
+    private volatile boolean heartbeatDue;
+
+    private volatile boolean closed;
+
+    ForecastSubscription(SseEmitter emitter, Set<Integer> zipCodes, Unit unit, ForecastEncoder encoder, Executor sendExecutor) {
+        this.emitter = emitter;
+        this.zipCodes = zipCodes;
+        this.unit = unit;
+        this.encoder = encoder;
+        this.sendExecutor = sendExecutor;
+    }
+
+    /**
+     * Queues the update for sending, replacing an older undelivered one for the same zip code.
+     *
+     * @return Whether an undelivered update was replaced.
+     */
+    boolean offer(ForecastUpdate update) {
+        if (closed) {
+            return false;
+        }
+        boolean[] replaced = new boolean[1];
+        pending.merge(update.getZipCode(), update, (waiting, next) -> {
+            replaced[0] = true;
+            return next.getFetchedAt() >= waiting.getFetchedAt() ? next : waiting;
+        });
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+        schedule();
+        return replaced[0];
+    }
+
+    /**
+     * Sends an SSE comment when nothing was sent for `idleNanos`, so proxies keep the connection open
+     * and a client that went away is noticed.
+     */
+    void heartbeat(long now, long idleNanos) {
+        if (!closed && now - lastSentNanos >= idleNanos) {
+            heartbeatDue = true;
+            schedule();
+        }
+    }
+
+    /**
+     * @return How long the oldest undelivered update has waited, in nanoseconds.
+     */
+    long lagNanos(long now) {
+        long since = oldestPendingNanos.get();
+        return since == 0 ? 0 : now - since;
+    }
+
+    /**
+     * Stops sending and completes the stream. A write in progress is interrupted; the stream is then
+     * completed by the drain task, never by the caller's thread.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.clear();
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            sendExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        writer = Thread.currentThread();
+        try {
+            while (!closed && (!pending.isEmpty() || heartbeatDue)) {
+                // Every update still undelivered after this pass arrived during it
+                long passStartNanos = System.nanoTime();
+                for (Integer zipCode : pending.keySet()) {
+                    ForecastUpdate update = pending.remove(zipCode);
+                    if (update != null && update.getFetchedAt() > delivered.getOrDefault(zipCode, Long.MIN_VALUE)) {
+                        emitter.send(SseEmitter.event()
+                                .id(update.id())
+                                .name(EVENT_NAME)
+                                .data(update.body(unit, encoder), MediaType.APPLICATION_JSON));
+                        delivered.put(zipCode, update.getFetchedAt());
+                        lastSentNanos = System.nanoTime();
+                    }
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSentNanos = System.nanoTime();
+                }
+                oldestPendingNanos.set(pending.isEmpty() ? 0 : passStartNanos);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, the stream was completed, or the write was interrupted by close()
+            closed = true;
+            pending.clear();
+        } finally {
+            writer = null;
+            // An interrupt from close() was meant for this write only
+            Thread.interrupted();
+            oldestPendingNanos.set(0);
+            if (closed) {
+                complete();
+            }
+            draining.set(false);
+            // close() may have run after the checks above and found the drain still running
+            if (closed ? !completed.get() : !pending.isEmpty() || heartbeatDue) {
+                if (!closed) {
+                    oldestPendingNanos.compareAndSet(0, System.nanoTime());
+                }
+                schedule();
+            }
+        }
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // Already completed by the container
+            }
+        }
+    }
+
+}
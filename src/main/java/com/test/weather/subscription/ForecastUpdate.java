@@ -0,0 +1,60 @@
+package com.test.weather.subscription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+/**
+ * The `ForecastUpdate` class is one change of a zip code's reading on its way to subscribers. It is
+ * shared by every subscriber it is pushed to, and so is the event body for each unit: it wraps the
+ * JSON already encoded on the reading as `{"zipCode":…,"forecast":…}` at most once per unit.
+ *
+ * @author N Javeed
+ */
+class ForecastUpdate {
+
+    private final int zipCode;
+
+    private final WeatherReading reading;
+
+    private final AtomicReferenceArray<byte[]> bodies = new AtomicReferenceArray<>(Unit.values().length);
+
+    ForecastUpdate(int zipCode, WeatherReading reading) {
+        this.zipCode = zipCode;
+        this.reading = reading;
+    }
+
+    int getZipCode() {
+        return zipCode;
+    }
+
+    long getFetchedAt() {
+        return reading.getFetchedAt();
+    }
+
+    /**
+     * @return The event id, which names the zip code and the reading's fetch time.
+     */
+    String id() {
+        return zipCode + "-" + Long.toHexString(reading.getFetchedAt());
+    }
+
+    byte[] body(Unit unit, ForecastEncoder encoder) throws JsonProcessingException {
+        byte[] body = bodies.get(unit.ordinal());
+        if (body == null) {
+            byte[] prefix = ("{\"zipCode\":" + zipCode + ",\"forecast\":").getBytes(StandardCharsets.US_ASCII);
+            byte[] forecast = encoder.json(reading, unit);
+            body = new byte[prefix.length + forecast.length + 1];
+            System.arraycopy(prefix, 0, body, 0, prefix.length);
+            System.arraycopy(forecast, 0, body, prefix.length, forecast.length);
+            body[body.length - 1] = '}';
+            bodies.set(unit.ordinal(), body);
+        }
+        return body;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.test.weather.subscription;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.test.weather.service.WeatherForecastService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The `SubscriptionRefresher` class keeps subscribed zip codes current once clients stop polling for
+ * them. Every `weather.subscriptions.refresh-interval-seconds` it walks the subscribed zip codes and
+ * queues a reload for each one the service says is due; the reload is stored and pushed like any
+ * other fetch. A zip code is reloaded about once per TTL however many clients subscribe to it.
+ *
+ * Reloads run on an executor of their own, `weather.subscriptions.refresh-concurrency` threads with
+ * room for `weather.subscriptions.refresh-max-pending` queued reloads, so they never crowd out batch
+ * fetches. When the queue is full the walk stops and the remaining zip codes wait for the next one.
+ *
+ * @author N Javeed
+ */
+@Slf4j
+@Component
+public class SubscriptionRefresher {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("forecast-push-refresh-"));
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final ForecastBroadcaster broadcaster;
+
+    private final WeatherForecastService weatherForecastService;
+
+    // Zip codes queued or being reloaded, so a slow reload is not queued again by the next walk
+    private final Set<Integer> scheduled = ConcurrentHashMap.newKeySet();
+
+    private final Counter deferred;
+
+    public SubscriptionRefresher(ForecastBroadcaster broadcaster, WeatherForecastService weatherForecastService,
+            MeterRegistry registry,
+            @Value("${weather.subscriptions.refresh-interval-seconds}") long refreshIntervalSeconds,
+            @Value("${weather.subscriptions.refresh-concurrency}") int refreshConcurrency,
+            @Value("${weather.subscriptions.refresh-max-pending}") int refreshMaxPending) {
+        this.broadcaster = broadcaster;
+        this.weatherForecastService = weatherForecastService;
+        this.refreshExecutor = new ThreadPoolExecutor(refreshConcurrency, refreshConcurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshMaxPending), new CustomizableThreadFactory("forecast-push-reload-"));
+        this.deferred = Counter.builder("weather.subscriptions.refresh.deferred")
+                .description("Walks over subscribed zip codes cut short because the reload queue was full")
+                .register(registry);
+        scheduler.scheduleWithFixedDelay(this::refreshDue, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void refreshDue() {
+        try {
+            for (Integer zipCode : broadcaster.getSubscribedZipCodes()) {
+                if (scheduled.contains(zipCode) || !weatherForecastService.isRefreshDue(zipCode)) {
+                    continue;
+                }
+                scheduled.add(zipCode);
+                try {
+                    refreshExecutor.execute(() -> refresh(zipCode));
+                } catch (RejectedExecutionException e) {
+                    scheduled.remove(zipCode);
+                    deferred.increment();
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Refreshing subscribed zip codes failed", e);
+        }
+    }
+
+    private void refresh(Integer zipCode) {
+        try {
+            weatherForecastService.refresh(zipCode);
+        } catch (RuntimeException e) {
+            // A failed reload is retried by a later walk; subscribers keep the reading they have
+            log.debug("Reloading subscribed zip code {} failed", zipCode, e);
+        } finally {
+            scheduled.remove(zipCode);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
+    }
+
+}
@@ -3,8 +3,14 @@ package com.test.weather.utility;
 public class Constants {
 
     public static final String IS_CACHED = "X-Is-Cached";
+    public static final String CACHE_STATUS = "X-Cache-Status";
+    public static final String APPROXIMATED_FROM = "X-Approximated-From";
     public static final String ZIP_CODE = "zipCode";
     public static final String ERROR_MESSAGE = "X-Error-Message";
     public static final String UNIT = "unit";
+    public static final String API_KEY = "X-API-Key";
+    public static final String CLUSTER_TOKEN = "X-Cluster-Token";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_FORECAST_RECORD_VALUE = "application/vnd.weather.forecast-record";
 
 }
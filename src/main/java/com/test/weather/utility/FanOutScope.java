@@ -0,0 +1,108 @@
+package com.test.weather.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The `FanOutScope` class waits for a group of subtasks whose waits are bound to a block of code, in
+ * the manner of structured concurrency: subtasks are forked inside a try-with-resources block, joined
+ * with a deadline, and the scope stops waiting for every subtask still running when the block exits,
+ * so no wait outlives the request that started it.
+ *
+ * A subtask is started by a function given the scope's executor and returning the subtask's future.
+ * That future may be this caller's copy of work shared with other callers, such as a `SingleFlight`
+ * load, so closing the scope only cancels the futures and never interrupts the work behind them: a
+ * load other callers are waiting on keeps running and still completes for them.
+ *
+ * The executor either starts a virtual thread per task, with a shared `Semaphore` bounding how many
+ * run at once across scopes, or is a shared executor whose size bounds them.
+ *
+ * @author N Javeed
+ */
+public class FanOutScope<T> implements AutoCloseable {
+
+    private final Executor executor;
+
+    private final List<CompletableFuture<T>> forks = new ArrayList<>();
+
+    private FanOutScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return A scope running each task on a new virtual thread; at most `permits` tasks of all
+     * scopes sharing it run at a time.
+     */
+    public static <T> FanOutScope<T> ofVirtualThreads(Semaphore permits) {
+        return new FanOutScope<>(task -> Thread.startVirtualThread(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }));
+    }
+
+    /**
+     * @return A scope running its tasks on the shared executor, whose size bounds their concurrency.
+     */
+    public static <T> FanOutScope<T> on(Executor shared) {
+        return new FanOutScope<>(shared);
+    }
+
+    /**
+     * The function starts a subtask and joins its future to the scope.
+     *
+     * @param start The `start` parameter starts the subtask's work, on the given executor if it runs
+     * any, and returns the future this scope waits for.
+     * @return The subtask's future.
+     */
+    public CompletableFuture<T> fork(Function<Executor, CompletableFuture<T>> start) {
+        CompletableFuture<T> fork = start.apply(executor);
+        forks.add(fork);
+        return fork;
+    }
+
+    /**
+     * The function waits for every subtask to finish, successfully or not, until the deadline.
+     *
+     * @param deadlineNanos The `deadlineNanos` parameter is a `System.nanoTime()` value.
+     * @return Whether every subtask finished before the deadline.
+     */
+    public boolean joinUntil(long deadlineNanos) throws InterruptedException {
+        for (CompletableFuture<T> fork : forks) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0 && !fork.isDone()) {
+                return false;
+            }
+            try {
+                fork.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                // The caller inspects each fork's outcome
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the futures of the subtasks that have not finished. The work behind them is not
+     * interrupted.
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<T> fork : forks) {
+            fork.cancel(false);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.test.weather.utility;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The `SingleFlight` class coalesces concurrent loads for the same key so that only one load is in
+ * flight per key at a time. Callers that arrive while a load is running wait for it and share its
+ * result, or its failure.
+ *
+ * Loads may throw one checked exception type, `E`, given when the flights are created. A caller that
+ * waits on another caller's load gets the load's failure as it was thrown when it is an `E`, a
+ * `RuntimeException` or an `Error`; any other checked failure, such as the `TimeoutException` of an
+ * asynchronous load, is wrapped in a `CompletionException`.
+ *
+ * @author N Javeed
+ */
+public class SingleFlight<K, V, E extends Exception> {
+
+    private final Class<E> failureType;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder flights = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * A load that may throw a checked exception.
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    /**
+     * @param failureType The `failureType` parameter is the checked exception loads may throw.
+     */
+    public SingleFlight(Class<E> failureType) {
+        this.failureType = failureType;
+    }
+
+    /**
+     * The function runs the loader for the given key, unless a load for that key is already running,
+     * in which case it waits for that load and returns its result.
+     *
+     * @param key The `key` parameter identifies the value being loaded; concurrent callers with an
+     * equal key share one load.
+     * @param loader The `loader` parameter performs the actual load when this caller is the leader.
+     * @return The loaded value, either produced by this caller or by the leader it waited on.
+     */
+    public V execute(K key, Loader<V, ? extends E> loader) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        flights.increment();
+        try {
+            V value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * The function is the non-blocking form of `execute`. It shares flights with `execute`, so blocking
+     * and asynchronous callers for the same key coalesce onto one load.
+     *
+     * @param key The `key` parameter identifies the value being loaded.
+     * @param loader The `loader` parameter starts the load when this caller is the leader.
+     * @return A future for this caller only. Cancelling it, or letting it time out, does not affect
+     * the shared load or the other callers waiting on it.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+        flights.increment();
+        flight.whenComplete((value, e) -> inFlight.remove(key, flight));
+        try {
+            loader.get().whenComplete((value, e) -> {
+                if (e != null) {
+                    flight.completeExceptionally(e);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    private V await(CompletableFuture<V> flight) throws E {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (failureType.isInstance(cause)) {
+                throw failureType.cast(cause);
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * @return The number of loads that were actually started, one per herd.
+     */
+    public long getFlightCount() {
+        return flights.sum();
+    }
+
+    /**
+     * @return The number of callers that waited on another caller's load instead of starting their
+     * own.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return The number of loads currently in flight.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.test.weather.utility;
 
+import com.test.weather.model.enums.Unit;
+
 import lombok.experimental.UtilityClass;
 
 /**
@@ -36,4 +38,20 @@ public class UnitConversion {
         return (fahrenheit - 32) * 5 / 9;
     }
 
+    /**
+     * The function converts a temperature value from one unit to another, returning it unchanged when
+     * both units are the same.
+     * 
+     * @param value The parameter `value` is the temperature to convert, expressed in `from`.
+     * @param from The parameter `from` is the unit `value` is expressed in.
+     * @param to The parameter `to` is the unit to convert `value` into.
+     * @return The method `convert` returns the temperature expressed in `to`.
+     */
+    public static double convert(double value, Unit from, Unit to) {
+        if (from == to) {
+            return value;
+        }
+        return to == Unit.FAHRENHEIT ? celsiusToFahrenheit(value) : fahrenheitToCelsius(value);
+    }
+
 }
@@ -0,0 +1,152 @@
+package com.test.weather.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+class CompactReadingCacheTests {
+
+    private static final long TTL = 60_000;
+
+    // 16 entries at a load factor of 0.75 round up to 32 slots
+    private final CompactReadingCache cache = new CompactReadingCache("weatherCache", TTL, 16, 1_000);
+
+    @Test
+    void putGetAndOverwrite() {
+        long now = System.currentTimeMillis();
+        assertNull(cache.get(10001));
+        cache.put(10001, reading(20, Unit.CELSIUS, now));
+        cache.put("10002", reading(68, Unit.FAHRENHEIT, now));
+
+        assertEquals(reading(20, Unit.CELSIUS, now), cache.get(10001).get());
+        assertEquals(reading(68, Unit.FAHRENHEIT, now), cache.get(10002).get());
+
+        cache.put(10001, reading(25, Unit.CELSIUS, now + 1));
+        assertEquals(reading(25, Unit.CELSIUS, now + 1), cache.get("10001").get());
+        assertEquals(2, cache.size());
+
+        assertEquals(3, cache.getPutCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertThrows(IllegalArgumentException.class, () -> cache.put(10003, "not a reading"));
+    }
+
+    @Test
+    void evictShiftsBackEntriesThatWrapAround() {
+        long now = System.currentTimeMillis();
+        assertEquals(32, cache.capacity());
+        // Three zips whose home is the last slot, so two of them wrap to slots 0 and 1, and one whose
+        // home is slot 0, pushed on to slot 2
+        List<Integer> lastSlot = zipsWithHome(31, 3);
+        int first = lastSlot.get(0);
+        int second = lastSlot.get(1);
+        int third = lastSlot.get(2);
+        int displaced = zipsWithHome(0, 1).get(0);
+        for (int zip : new int[] { first, second, third, displaced }) {
+            cache.put(zip, reading(zip % 100, Unit.CELSIUS, now));
+        }
+
+        cache.evict(first);
+        assertNull(cache.get(first));
+        for (int zip : new int[] { second, third, displaced }) {
+            assertEquals(reading(zip % 100, Unit.CELSIUS, now), cache.get(zip).get());
+        }
+
+        cache.evict(third);
+        assertNull(cache.get(third));
+        assertEquals(reading(second % 100, Unit.CELSIUS, now), cache.get(second).get());
+        assertEquals(reading(displaced % 100, Unit.CELSIUS, now), cache.get(displaced).get());
+        assertEquals(2, cache.size());
+
+        cache.put(first, reading(1, Unit.CELSIUS, now));
+        assertEquals(reading(1, Unit.CELSIUS, now), cache.get(first).get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void expiredEntriesAreMissesUntilRehashDropsThem() {
+        long now = System.currentTimeMillis();
+        cache.put(10001, reading(20, Unit.CELSIUS, now - TTL));
+        assertNull(cache.get(10001));
+        assertEquals(1, cache.size(), "an expired entry keeps its slot until the table is rehashed");
+
+        for (int zip = 20000; zip < 20011; zip++) {
+            cache.put(zip, reading(0, Unit.CELSIUS, now - 2 * TTL));
+        }
+        for (int zip = 30000; zip < 30012; zip++) {
+            cache.put(zip, reading(10, Unit.CELSIUS, now));
+        }
+        assertEquals(24, cache.size());
+        assertEquals(32, cache.capacity());
+
+        // The 25th entry passes the load limit: the 12 expired entries are dropped, not copied
+        cache.put(40000, reading(30, Unit.CELSIUS, now));
+        assertEquals(13, cache.size());
+        assertEquals(12, cache.getEvictionCount());
+        assertEquals(64, cache.capacity());
+        for (int zip = 30000; zip < 30012; zip++) {
+            assertEquals(reading(10, Unit.CELSIUS, now), cache.get(zip).get());
+        }
+        assertEquals(reading(30, Unit.CELSIUS, now), cache.get(40000).get());
+        assertNull(cache.get(20000));
+    }
+
+    @Test
+    void newZipsAtTheLimitReplaceSampledEntries() {
+        CompactReadingCache bounded = new CompactReadingCache("weatherCache", TTL, 16, 16);
+        long now = System.currentTimeMillis();
+        for (int zip = 10000; zip < 10016; zip++) {
+            bounded.put(zip, reading(0, Unit.CELSIUS, now - (10016 - zip)));
+        }
+        assertEquals(16, bounded.size());
+
+        // Overwriting a cached zip needs no room
+        bounded.put(10000, reading(1, Unit.CELSIUS, now));
+        assertEquals(0, bounded.getEvictionCount());
+
+        for (int zip = 20000; zip < 21000; zip++) {
+            bounded.put(zip, reading(2, Unit.CELSIUS, now));
+            assertEquals(reading(2, Unit.CELSIUS, now), bounded.get(zip).get());
+            assertEquals(16, bounded.size());
+        }
+        assertEquals(1000, bounded.getEvictionCount());
+        assertEquals(32, bounded.capacity(), "the table never grows past what max-entries needs");
+    }
+
+    @Test
+    void clearEmptiesTheTable() {
+        cache.put(10001, reading(20, Unit.CELSIUS, System.currentTimeMillis()));
+        cache.clear();
+        assertNull(cache.get(10001));
+        assertEquals(0, cache.size());
+    }
+
+    private static List<Integer> zipsWithHome(int slot, int count) {
+        List<Integer> zips = new ArrayList<>();
+        for (int zip = 10000; zips.size() < count; zip++) {
+            if ((CompactReadingCache.mix(zip) & 31) == slot) {
+                zips.add(zip);
+            }
+        }
+        return zips;
+    }
+
+    private static WeatherReading reading(double temperature, Unit unit, long fetchedAt) {
+        return WeatherReading.builder()
+                .currentTemperature(temperature)
+                .lowTemperature(temperature - 5)
+                .highTemperature(temperature + 5)
+                .unit(unit)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.test.weather.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+class MappedReadingStoreTests {
+
+    private static final int HEADER_SIZE = 64;
+
+    private static final int RECORD_SIZE = 48;
+
+    private static final int SLOTS = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readingsSurviveReopening() throws IOException {
+        Path file = directory.resolve("l2.dat");
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            store.put(10001, reading(20, 1000));
+            store.put(10002, reading(25, 2000));
+            store.put(10001, reading(21, 3000));
+            store.remove(10002);
+        }
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            assertEquals(reading(21, 3000), store.get(10001));
+            assertNull(store.get(10002));
+            List<MappedReadingStore.Entry> entries = new ArrayList<>();
+            store.forEach(entries::add);
+            assertEquals(List.of(new MappedReadingStore.Entry(10001, reading(21, 3000))), entries);
+        }
+    }
+
+    @Test
+    void recordWithZeroedChecksumIsRecoveredAsEmpty() throws IOException {
+        Path file = directory.resolve("l2.dat");
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            store.put(10001, reading(20, 1000));
+            store.put(10002, reading(25, 2000));
+        }
+        // A crash after invalidating the record and before writing its new checksum
+        patch(file, 10001, RECORD_SIZE - 8, ByteBuffer.allocate(4).putInt(0, 0));
+
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            assertNull(store.get(10001));
+            assertEquals(reading(25, 2000), store.get(10002));
+            List<MappedReadingStore.Entry> entries = new ArrayList<>();
+            store.forEach(entries::add);
+            assertEquals(1, entries.size());
+
+            store.put(10001, reading(22, 3000));
+            assertEquals(reading(22, 3000), store.get(10001));
+        }
+    }
+
+    @Test
+    void recordTornMidWriteFailsItsChecksum() throws IOException {
+        Path file = directory.resolve("l2.dat");
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            store.put(10001, reading(20, 1000));
+        }
+        // New temperature written, old checksum left in place
+        patch(file, 10001, 8, ByteBuffer.allocate(8).putDouble(0, 35.0));
+
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            assertNull(store.get(10001));
+        }
+    }
+
+    @Test
+    void fileWithAnotherLayoutIsReinitialized() throws IOException {
+        Path file = directory.resolve("l2.dat");
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS)) {
+            store.put(10001, reading(20, 1000));
+        }
+        try (MappedReadingStore store = new MappedReadingStore(file, SLOTS * 2)) {
+            assertNull(store.get(10001));
+        }
+    }
+
+    @Test
+    void readersNeverSeeHalfOfAWrite() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (MappedReadingStore store = new MappedReadingStore(directory.resolve("l2.dat"), SLOTS)) {
+            store.put(10001, reading(1, 1));
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    store.put(10001, i % 2 == 0 ? reading(2, 2) : reading(1, 1));
+                }
+                running.set(false);
+            });
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                readers.add(executor.submit(() -> {
+                    int consistent = 0;
+                    while (running.get()) {
+                        WeatherReading reading = store.get(10001);
+                        if (reading != null) {
+                            // Each write pairs its temperatures with its own fetch time
+                            assertEquals((double) reading.getFetchedAt(), reading.getCurrentTemperature());
+                            assertEquals((double) reading.getFetchedAt(), reading.getHighTemperature());
+                            consistent++;
+                        }
+                    }
+                    return consistent;
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Overwrites bytes of the zip code's record in the closed file, as a crash mid-write would leave
+     * them.
+     */
+    private static void patch(Path file, int zip, int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            for (long offset = HEADER_SIZE; offset < channel.size(); offset += RECORD_SIZE) {
+                record.clear();
+                channel.read(record, offset);
+                if (record.getInt(0) == zip && record.get(4) != 0) {
+                    channel.write(bytes, offset + position);
+                    return;
+                }
+            }
+        }
+        throw new AssertionError("No record for " + zip);
+    }
+
+    private static WeatherReading reading(double temperature, long fetchedAt) {
+        return WeatherReading.builder()
+                .currentTemperature(temperature)
+                .lowTemperature(temperature - 5)
+                .highTemperature(temperature)
+                .unit(Unit.CELSIUS)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+}
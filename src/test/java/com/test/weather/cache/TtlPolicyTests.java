@@ -0,0 +1,64 @@
+package com.test.weather.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TtlPolicyTests {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TtlPolicy policy = new TtlPolicy(registry, true, 30, 5, 180, 1.0, 0.5, 1000);
+
+    @Test
+    void firstReadingGetsDefaultTtl() {
+        assertEquals(TimeUnit.MINUTES.toMillis(30), policy.record(10001, reading(20, 0)));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), policy.ttlMillis(10001));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), policy.ttlMillis(10002));
+    }
+
+    @Test
+    void ttlFollowsRateOfChangeWithinBounds() {
+        policy.record(10001, reading(20, 0));
+        // 2 degrees in an hour: 1 degree of tolerance lasts 30 minutes
+        assertEquals(TimeUnit.MINUTES.toMillis(30), policy.record(10001, reading(22, HOUR)));
+        // Half the smoothed rate after a still hour: 1 degree per hour
+        assertEquals(TimeUnit.MINUTES.toMillis(60), policy.record(10001, reading(22, 2 * HOUR)));
+
+        policy.record(10002, reading(10, 0));
+        assertEquals(TimeUnit.MINUTES.toMillis(180), policy.record(10002, reading(10, HOUR)));
+
+        policy.record(10003, reading(10, 0));
+        assertEquals(TimeUnit.MINUTES.toMillis(5), policy.record(10003, reading(30, HOUR)));
+        assertEquals(TimeUnit.MINUTES.toMillis(5), policy.ttlMillis(10003));
+    }
+
+    @Test
+    void fahrenheitReadingsAreComparedInCelsius() {
+        policy.record(10001, WeatherReading.builder().currentTemperature(68).unit(Unit.FAHRENHEIT).fetchedAt(0).build());
+        // 20 C to 21 C in an hour is 1 degree per hour
+        assertEquals(TimeUnit.MINUTES.toMillis(60), policy.record(10001, reading(21, HOUR)));
+    }
+
+    @Test
+    void fixedTtlWhenNotAdaptive() {
+        TtlPolicy fixed = new TtlPolicy(registry, false, 30, 5, 180, 1.0, 0.5, 1000);
+        fixed.record(10001, reading(20, 0));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), fixed.record(10001, reading(40, HOUR)));
+        assertEquals(TimeUnit.MINUTES.toMillis(30), fixed.getMaxTtlMillis());
+    }
+
+    private static WeatherReading reading(double celsius, long fetchedAt) {
+        return WeatherReading.builder().currentTemperature(celsius).unit(Unit.CELSIUS).fetchedAt(fetchedAt).build();
+    }
+
+}
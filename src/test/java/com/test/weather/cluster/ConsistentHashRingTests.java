@@ -0,0 +1,52 @@
+package com.test.weather.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTests {
+
+    private static final List<String> NODES = List.of("http://localhost:8090", "http://localhost:8091", "http://localhost:8092");
+
+    private static final int ZIPS = 100_000;
+
+    @Test
+    void spreadsZipCodesEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int zip = 0; zip < ZIPS; zip++) {
+            owned.merge(ring.ownerOf(zip), 1, Integer::sum);
+        }
+        assertEquals(NODES.size(), owned.size());
+        for (int count : owned.values()) {
+            assertTrue(Math.abs(count - ZIPS / NODES.size()) < ZIPS / NODES.size() / 5, "unbalanced ring: " + owned);
+        }
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsZipCodes() {
+        ConsistentHashRing full = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing reduced = new ConsistentHashRing(NODES.subList(0, 2), 128);
+        for (int zip = 0; zip < ZIPS; zip++) {
+            String owner = full.ownerOf(zip);
+            if (!owner.equals(NODES.get(2))) {
+                assertEquals(owner, reduced.ownerOf(zip));
+            }
+        }
+    }
+
+    @Test
+    void ownershipIsTheSameOnEveryNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing other = new ConsistentHashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 128);
+        for (int zip = 10000; zip < 11000; zip++) {
+            assertEquals(ring.ownerOf(zip), other.ownerOf(zip));
+        }
+    }
+
+}
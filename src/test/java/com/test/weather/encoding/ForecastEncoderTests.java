@@ -0,0 +1,74 @@
+package com.test.weather.encoding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.ForecastFormat;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+class ForecastEncoderTests {
+
+    private final ForecastEncoder encoder = new ForecastEncoder(new ObjectMapper(), Jackson2ObjectMapperBuilder.json());
+
+    private final WeatherReading reading = WeatherReading.builder()
+            .currentTemperature(20)
+            .lowTemperature(10)
+            .highTemperature(30)
+            .unit(Unit.CELSIUS)
+            .fetchedAt(1_700_000_000_000L)
+            .build();
+
+    @Test
+    void negotiatesFormatFromAccept() {
+        assertEquals(ForecastFormat.JSON, ForecastFormat.negotiate(null));
+        assertEquals(ForecastFormat.JSON, ForecastFormat.negotiate("*/*"));
+        assertEquals(ForecastFormat.JSON, ForecastFormat.negotiate("text/html, */*;q=0.8"));
+        assertEquals(ForecastFormat.CBOR, ForecastFormat.negotiate("application/cbor"));
+        assertEquals(ForecastFormat.SMILE, ForecastFormat.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(ForecastFormat.RECORD, ForecastFormat.negotiate("application/vnd.weather.forecast-record, application/json"));
+        assertEquals(ForecastFormat.JSON, ForecastFormat.negotiate("application/cbor;q=0, application/*"));
+        assertEquals(ForecastFormat.CBOR, ForecastFormat.negotiate("*/*, application/cbor"));
+        assertEquals(ForecastFormat.SMILE, ForecastFormat.negotiate("application/*, application/x-jackson-smile, application/cbor"));
+        assertEquals(ForecastFormat.JSON, ForecastFormat.negotiate("application/cbor;q=0.5, */*"));
+    }
+
+    @Test
+    void binaryFormatsDecodeToTheJsonResponse() throws Exception {
+        WeatherAPIResponse expected = reading.toResponse(Unit.FAHRENHEIT);
+
+        assertEquals(expected, new ObjectMapper().readValue(encoder.json(reading, Unit.FAHRENHEIT), WeatherAPIResponse.class));
+        assertEquals(expected, new CBORMapper().readValue(encoder.encode(reading, Unit.FAHRENHEIT, ForecastFormat.CBOR), WeatherAPIResponse.class));
+        assertEquals(expected, new SmileMapper().readValue(encoder.encode(reading, Unit.FAHRENHEIT, ForecastFormat.SMILE), WeatherAPIResponse.class));
+        // The record carries the current reading only
+        assertEquals(expected.toBuilder().nextForecast(null).build(), ForecastRecordCodec.decode(encoder.encode(reading, Unit.FAHRENHEIT, ForecastFormat.RECORD)));
+    }
+
+    @Test
+    void bodiesAreEncodedOncePerFormatAndUnit() throws Exception {
+        byte[] cbor = encoder.encode(reading, Unit.CELSIUS, ForecastFormat.CBOR);
+
+        assertSame(cbor, encoder.encode(reading, Unit.CELSIUS, ForecastFormat.CBOR));
+        assertEquals(ForecastRecordCodec.LENGTH, encoder.encode(reading, Unit.CELSIUS, ForecastFormat.RECORD).length);
+        assertArrayEquals(new byte[0], encoder.empty(ForecastFormat.RECORD));
+    }
+
+    @Test
+    void rejectsMalformedRecords() {
+        byte[] record = ForecastRecordCodec.encode(reading, Unit.CELSIUS);
+        record[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> ForecastRecordCodec.decode(record));
+        assertThrows(IllegalArgumentException.class, () -> ForecastRecordCodec.decode(new byte[10]));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.test.weather.geo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+class NearbyZipFinderTests {
+
+    private static final String DATASET = """
+            # test centroids
+            zip,latitude,longitude
+            10001,40.7506,-73.9972
+            10002,40.7157,-73.9863
+            10003,40.7318,-73.9891
+            94105,37.7898,-122.3942
+            """;
+
+    @Test
+    void listsNeighboursByDistanceWithinTheRadius() throws Exception {
+        NearbyZipFinder finder = new NearbyZipFinder(new ByteArrayResource(DATASET.getBytes(StandardCharsets.UTF_8)), 10, 8);
+
+        assertEquals(4, finder.size());
+        assertArrayEquals(new int[] { 10003, 10002 }, finder.nearby(10001));
+        assertArrayEquals(new int[0], finder.nearby(94105));
+    }
+
+    @Test
+    void zipCodesOutsideTheDatasetHaveNoNeighbours() throws Exception {
+        NearbyZipFinder finder = new NearbyZipFinder(new ByteArrayResource(DATASET.getBytes(StandardCharsets.UTF_8)), 10, 1);
+
+        assertArrayEquals(new int[] { 10003 }, finder.nearby(10001));
+        for (int zipCode = 0; zipCode < 100_000; zipCode += 7) {
+            if (zipCode < 10001 || zipCode > 10003 && zipCode != 94105) {
+                assertEquals(0, finder.nearby(zipCode).length);
+            }
+        }
+    }
+
+}
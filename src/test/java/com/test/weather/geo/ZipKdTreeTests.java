@@ -0,0 +1,61 @@
+package com.test.weather.geo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class ZipKdTreeTests {
+
+    private static final int POINTS = 5_000;
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        int[] zips = new int[POINTS];
+        double[] latitudes = new double[POINTS];
+        double[] longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            zips[i] = 10000 + i;
+            latitudes[i] = 25 + random.nextDouble() * 24;
+            longitudes[i] = -124 + random.nextDouble() * 57;
+        }
+        ZipKdTree tree = new ZipKdTree(zips, latitudes, longitudes);
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = 25 + random.nextDouble() * 24;
+            double longitude = -124 + random.nextDouble() * 57;
+            double radiusKm = 20 + random.nextDouble() * 200;
+            int[] expected = IntStream.range(0, POINTS)
+                    .filter(i -> haversineKm(latitude, longitude, latitudes[i], longitudes[i]) <= radiusKm)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(i -> haversineKm(latitude, longitude, latitudes[i], longitudes[i])))
+                    .limit(8)
+                    .mapToInt(i -> zips[i])
+                    .toArray();
+            assertArrayEquals(expected, tree.nearest(latitude, longitude, radiusKm, 8));
+        }
+    }
+
+    @Test
+    void includesTheQueriedLocationFirst() {
+        ZipKdTree tree = new ZipKdTree(new int[] { 10001, 10002, 90210 },
+                new double[] { 40.7506, 40.7157, 34.1030 },
+                new double[] { -73.9972, -73.9863, -118.4105 });
+        assertArrayEquals(new int[] { 10001, 10002 }, tree.nearest(40.7506, -73.9972, 10, 4));
+        assertEquals(0, tree.nearest(0, 0, 10, 4).length);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * ZipKdTree.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+
+}
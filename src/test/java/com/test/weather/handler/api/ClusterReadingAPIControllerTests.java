@@ -0,0 +1,57 @@
+package com.test.weather.handler.api;
+
+import static com.test.weather.utility.Constants.CLUSTER_TOKEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.test.weather.model.enums.Unit;
+import com.test.weather.service.WeatherForecastService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "weather.cluster.enabled=true",
+        "weather.cluster.token=peer-secret",
+        "weather.geo-fallback.enabled=true" })
+@AutoConfigureMockMvc
+class ClusterReadingAPIControllerTests {
+
+    private static final String READINGS = "/weather-forecast/internal/v1/readings/";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherForecastService weatherForecastService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void peersAreNeverAnsweredFromANearbyZipCode() throws Exception {
+        weatherForecastService.getForecastResult(10001, Unit.CELSIUS);
+        // A client's miss next door is approximated from 10001
+        assertEquals(10001, weatherForecastService.getForecastResult(10011, Unit.CELSIUS).getApproximatedFrom());
+
+        // A peer's is not: the node fetches the zip code's own reading for it
+        double upstreamCallsBefore = upstreamCalls();
+        assertNull(weatherForecastService.peekReading(10018));
+        assertEquals(200, mockMvc.perform(get(READINGS + 10018).header(CLUSTER_TOKEN, "peer-secret"))
+                .andReturn().getResponse().getStatus());
+        assertEquals(1, upstreamCalls() - upstreamCallsBefore);
+        assertNotNull(weatherForecastService.peekReading(10018));
+    }
+
+    private double upstreamCalls() {
+        return registry.get("weather.upstream.latency").timer().count();
+    }
+
+}
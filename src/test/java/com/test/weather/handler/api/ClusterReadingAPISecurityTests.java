@@ -0,0 +1,35 @@
+package com.test.weather.handler.api;
+
+import static com.test.weather.utility.Constants.CLUSTER_TOKEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = { "weather.cluster.enabled=true", "weather.cluster.token=peer-secret" })
+@AutoConfigureMockMvc
+class ClusterReadingAPISecurityTests {
+
+    private static final String READING = "/weather-forecast/internal/v1/readings/10001";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void refusesRequestsWithoutTheClusterToken() throws Exception {
+        assertEquals(403, mockMvc.perform(get(READING)).andReturn().getResponse().getStatus());
+        assertEquals(403, mockMvc.perform(get(READING).header(CLUSTER_TOKEN, "guess")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void admitsPeersWithTheClusterToken() throws Exception {
+        // The reading itself may be unavailable upstream; only the authorization is checked
+        assertNotEquals(403, mockMvc.perform(get(READING).header(CLUSTER_TOKEN, "peer-secret")).andReturn().getResponse().getStatus());
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.test.weather.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HotKeyTrackerTests {
+
+    @Test
+    void sketchNeverUnderestimates() {
+        // A narrow sketch so distinct zip codes share counters
+        HotKeyTracker tracker = new HotKeyTracker(10, 64, Long.MAX_VALUE);
+        int[] counts = new int[500];
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int zip = random.nextInt(counts.length);
+            counts[zip]++;
+            tracker.record(10000 + zip);
+        }
+        for (int zip = 0; zip < counts.length; zip++) {
+            assertTrue(tracker.estimate(10000 + zip) >= counts[zip]);
+        }
+
+        HotKeyTracker wide = new HotKeyTracker(10, 4096, Long.MAX_VALUE);
+        for (int i = 0; i < 5; i++) {
+            wide.record(10001);
+        }
+        assertEquals(5, wide.estimate(10001));
+        assertEquals(0, wide.estimate(10002));
+    }
+
+    @Test
+    void keepsTheHottestWithinCapacity() {
+        HotKeyTracker tracker = new HotKeyTracker(3, 4096, Long.MAX_VALUE);
+        // Zip code 10000 + n is requested n times, interleaved
+        for (int round = 1; round <= 10; round++) {
+            for (int n = round; n <= 10; n++) {
+                tracker.record(10000 + n);
+            }
+        }
+        List<HotKeyTracker.HotKey> top = tracker.top();
+        assertEquals(List.of(new HotKeyTracker.HotKey(10010, 10), new HotKeyTracker.HotKey(10009, 9),
+                new HotKeyTracker.HotKey(10008, 8)), top);
+        assertTrue(tracker.isHot(10008));
+        assertFalse(tracker.isHot(10001));
+    }
+
+    @Test
+    void newlyHotKeysAreAdmittedInBatches() {
+        HotKeyTracker tracker = new HotKeyTracker(2, 4096, Long.MAX_VALUE);
+        tracker.record(10001);
+        tracker.record(10002);
+        assertTrue(tracker.isHot(10001), "keys are admitted directly until the tracker is full");
+        assertTrue(tracker.isHot(10002));
+
+        int requests = 2;
+        for (int i = 0; i < 5; i++) {
+            tracker.record(10003);
+            requests++;
+        }
+        assertFalse(tracker.isHot(10003), "waits for the next batch");
+
+        while (requests % HotKeyTracker.ADMISSION_INTERVAL != 0) {
+            tracker.record(10003);
+            requests++;
+        }
+        assertTrue(tracker.isHot(10003));
+        assertEquals(2, tracker.top().size());
+    }
+
+    @Test
+    void countsAreHalvedEveryDecayInterval() {
+        HotKeyTracker tracker = new HotKeyTracker(2, 4096, 100);
+        for (int i = 0; i < 60; i++) {
+            tracker.record(10001);
+        }
+        for (int i = 0; i < 40; i++) {
+            tracker.record(10002);
+        }
+        assertEquals(30, tracker.estimate(10001));
+        assertEquals(20, tracker.estimate(10002));
+        assertEquals(List.of(new HotKeyTracker.HotKey(10001, 30), new HotKeyTracker.HotKey(10002, 20)), tracker.top());
+
+        // Recent traffic overtakes the decayed leader
+        for (int i = 0; i < 35; i++) {
+            tracker.record(10003);
+        }
+        assertEquals(List.of(new HotKeyTracker.HotKey(10003, 35), new HotKeyTracker.HotKey(10001, 30)), tracker.top());
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.test.weather.ratelimit;
+
+import static com.test.weather.utility.Constants.API_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+class RateLimitFilterTests {
+
+    private static final String ROUTE = "/weather-forecast/v1";
+
+    private static final String READINGS = "/weather-forecast/internal/v1/readings/";
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            Map.of(ROUTE, RateLimit.parse("1/2"), READINGS + "**", RateLimit.parse("1/1")),
+            RateLimit.parse("1000/1000"), 1_000, Set.of("partner"));
+
+    @Test
+    void unknownKeysAreChargedToTheAddress() throws Exception {
+        assertEquals(200, call("10.0.0.1", "random-1"));
+        assertEquals(200, call("10.0.0.1", "random-2"));
+        assertEquals(429, call("10.0.0.1", "random-3"));
+        assertEquals(429, call("10.0.0.1", null));
+        assertEquals(200, call("10.0.0.2", "random-4"));
+    }
+
+    @Test
+    void configuredKeyHasItsOwnBucketAcrossAddresses() throws Exception {
+        assertEquals(200, call("10.0.0.1", "partner"));
+        assertEquals(200, call("10.0.0.2", "partner"));
+        assertEquals(429, call("10.0.0.3", "partner"));
+        assertEquals(200, call("10.0.0.1", null));
+    }
+
+    @Test
+    void prefixRouteCoversEveryPathBelowIt() throws Exception {
+        assertEquals(200, call(READINGS + "10001", "10.0.0.1", null));
+        assertEquals(429, call(READINGS + "10002", "10.0.0.1", null));
+        assertEquals(200, call("/weather-forecast/internal/v2", "10.0.0.1", null));
+    }
+
+    @Test
+    void missBudgetIsChargedForEveryUpstreamFetch() throws Exception {
+        RateLimitFilter missFilter = new RateLimitFilter(Map.of(ROUTE, RateLimit.parse("1000/1000")),
+                RateLimit.parse("1/3"), 1_000, Set.of());
+
+        // Served without reaching the external API, as a fallback would be
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, call(missFilter, "10.0.0.1", 0));
+        }
+        // A batch that fetched three zip codes spends the whole budget
+        assertEquals(200, call(missFilter, "10.0.0.1", 3));
+        assertEquals(429, call(missFilter, "10.0.0.1", 0));
+        assertEquals(200, call(missFilter, "10.0.0.2", 0));
+    }
+
+    private int call(String address, String apiKey) throws Exception {
+        return call(ROUTE, address, apiKey);
+    }
+
+    private int call(String path, String address, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(address);
+        if (apiKey != null) {
+            request.addHeader(API_KEY, apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private int call(RateLimitFilter missFilter, String address, int fetches) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ROUTE);
+        request.setServletPath(ROUTE);
+        request.setRemoteAddr(address);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        missFilter.doFilter(request, response, (servedRequest, servedResponse) -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes((HttpServletRequest) servedRequest));
+            try {
+                UpstreamFetchCount count = UpstreamFetchCount.current();
+                for (int i = 0; i < fetches; i++) {
+                    UpstreamFetchCount.record(count);
+                }
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        return response.getStatus();
+    }
+
+}
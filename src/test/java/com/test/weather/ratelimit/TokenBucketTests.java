@@ -0,0 +1,55 @@
+package com.test.weather.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admitsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(RateLimit.parse("10/5"), 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        assertTrue(bucket.tryAcquire(SECOND / 10) > 0);
+
+        // A full second idle refills the whole burst and no more
+        long later = 2 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(later));
+        }
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void debitCanOverdrawAndPeekReportsTheDebt() {
+        TokenBucket bucket = new TokenBucket(RateLimit.parse("1/2"), 0);
+        assertEquals(0, bucket.peek(0));
+        for (int i = 0; i < 4; i++) {
+            bucket.debit(0, 1);
+        }
+        assertEquals(3 * SECOND, bucket.peek(0));
+        assertEquals(0, bucket.peek(3 * SECOND));
+        assertEquals(0, bucket.tryAcquire(3 * SECOND));
+
+        // A request that cost several upstream calls is charged for all of them at once
+        bucket.debit(4 * SECOND, 3);
+        assertEquals(2 * SECOND, bucket.peek(4 * SECOND));
+    }
+
+    @Test
+    void rejectsMalformedLimits() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.parse("10"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimit.parse("0/5"));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.test.weather.sao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class UpstreamGuardTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 0.5, 4, 1000, 2, clock::get);
+
+    @Test
+    void breakerOpensOnFailureRateAndClosesAfterProbes() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire(), "only the configured probes are let through");
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedProbeReopensBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1000, breaker.getRetryAfterMillis());
+    }
+
+    @Test
+    void limiterGrowsAdditivelyAndBacksOffMultiplicatively() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 8, 100, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire(), "calls over the limit are rejected, not queued");
+        for (int i = 0; i < 4; i++) {
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(4, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(5, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        limiter.onDropped();
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void guardFailsFastWhileOpen() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard(breaker, new AimdConcurrencyLimiter(4, 1, 8, 100, 0.5));
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+                upstreamCalls.incrementAndGet();
+                throw new IllegalStateException("down");
+            }));
+        }
+        UpstreamUnavailableException refused = assertThrows(UpstreamUnavailableException.class,
+                () -> guard.call(upstreamCalls::incrementAndGet));
+        assertEquals(1000, refused.getRetryAfterMillis());
+        CompletableFuture<Integer> async = guard.callAsync(() -> CompletableFuture.completedFuture(upstreamCalls.incrementAndGet()));
+        ExecutionException e = assertThrows(ExecutionException.class, async::get);
+        assertTrue(e.getCause() instanceof UpstreamUnavailableException);
+        assertEquals(4, upstreamCalls.get());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(5, guard.call(upstreamCalls::incrementAndGet));
+        assertEquals(6, guard.callAsync(() -> CompletableFuture.completedFuture(upstreamCalls.incrementAndGet())).get());
+        assertEquals(CircuitBreaker.State.CLOSED, guard.getBreakerState());
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.test.weather.sao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+class WeatherReadingDecoderTests {
+
+    private final WeatherReadingDecoder decoder = new WeatherReadingDecoder(new ObjectMapper());
+
+    @Test
+    void plainDecimalsTakeTheFastPath() {
+        assertFastPath("27.4", 27.4);
+        assertFastPath("-3.25", -3.25);
+        assertFastPath("+1.5", 1.5);
+        assertFastPath("007", 7);
+        assertFastPath("12.", 12);
+        assertFastPath(".5", 0.5);
+        assertFastPath("-0.0", -0.0);
+        // 15 and 16 significant digits still fit in 53 bits
+        assertFastPath("123456789012.345", 123456789012.345);
+        assertFastPath("9007199254740.991", 9007199254740.991);
+    }
+
+    @Test
+    void anythingElseFallsBackToParseDouble() {
+        // Exponents, a second dot, digits past 2^53, more than 22 fraction digits and empty input
+        for (String text : new String[] { "1.5e2", "-2E-3", "1.2.3", "12345678901234567.5", "9007199254740992",
+                "0.00000000000000000000001", "", "-", ".", "27,4", "NaN" }) {
+            assertTrue(Double.isNaN(parse(text)), text);
+        }
+    }
+
+    @Test
+    void fastPathMatchesParseDoubleOnRandomDecimals() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long mantissa = random.nextLong() & ((1L << (1 + random.nextInt(53))) - 1);
+            int scale = random.nextInt(23);
+            String digits = String.format("%0" + (scale + 1) + "d", mantissa);
+            String text = (random.nextBoolean() ? "-" : "")
+                    + digits.substring(0, digits.length() - scale) + (scale > 0 ? "." + digits.substring(digits.length() - scale) : "");
+            assertEquals(Double.parseDouble(text), parse(text), text);
+        }
+    }
+
+    @Test
+    void decodesStringAndNumberTemperatures() throws IOException {
+        WeatherReading reading = decode("{\"location\":\"10001\",\"temperature\":\"27.4\",\"lowTemperature\":23,"
+                + "\"highTemperature\":\"2.92e1\",\"unit\":\"celsius\",\"extra\":{\"nested\":[1,2]}}");
+        assertEquals(27.4, reading.getCurrentTemperature());
+        assertEquals(23, reading.getLowTemperature());
+        assertEquals(29.2, reading.getHighTemperature());
+        assertEquals(Unit.CELSIUS, reading.getUnit());
+
+        // The same payload read from a stream
+        WeatherReading streamed = decoder.decode(new ByteArrayInputStream(
+                "{\"temperature\":-1.5,\"lowTemperature\":-2,\"highTemperature\":0,\"unit\":\"FAHRENHEIT\"}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(-1.5, streamed.getCurrentTemperature());
+        assertEquals(Unit.FAHRENHEIT, streamed.getUnit());
+    }
+
+    @Test
+    void unitIsMatchedIgnoringCase() throws IOException {
+        for (String unit : new String[] { "celsius", "Celsius", "CELSIUS", "cElSiUs" }) {
+            assertEquals(Unit.CELSIUS, decode(payload("1", unit)).getUnit());
+        }
+        assertEquals(Unit.FAHRENHEIT, decode(payload("1", "Fahrenheit")).getUnit());
+        assertThrows(IllegalArgumentException.class, () -> decode(payload("1", "kelvin")));
+        assertThrows(IllegalArgumentException.class, () -> decode(payload("1", "celsiu")));
+    }
+
+    @Test
+    void malformedPayloadsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> decode("{\"temperature\":\"1\",\"lowTemperature\":\"1\",\"unit\":\"celsius\"}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> decode("{\"temperature\":\"1\",\"lowTemperature\":\"1\",\"highTemperature\":\"1\"}"));
+        assertThrows(NumberFormatException.class, () -> decode(payload("1.2.3", "celsius")));
+        assertThrows(JsonParseException.class, () -> decode(payload("true", "celsius").replace("\"true\"", "true")));
+        assertThrows(JsonParseException.class, () -> decode("[1,2]"));
+    }
+
+    private WeatherReading decode(String payload) throws IOException {
+        return decoder.decode(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String payload(String temperature, String unit) {
+        return "{\"temperature\":\"" + temperature + "\",\"lowTemperature\":\"" + temperature
+                + "\",\"highTemperature\":\"" + temperature + "\",\"unit\":\"" + unit + "\"}";
+    }
+
+    private static void assertFastPath(String text, double expected) {
+        assertEquals(expected, parse(text), text);
+        assertEquals(Double.parseDouble(text), parse(text), text);
+    }
+
+    private static double parse(String text) {
+        // Offset into a larger buffer, as the parser hands it over
+        char[] buffer = ("xx" + text + "yy").toCharArray();
+        return WeatherReadingDecoder.parseDecimal(buffer, 2, text.length());
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.test.weather.series;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.test.weather.model.cache.ReadingSummary;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+
+class ReadingSeriesTests {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statsCoverOnlyTheWindow() throws IOException {
+        try (ReadingSeries series = open(1024, 4)) {
+            series.record(10001, reading(10, 5, 15, 0));
+            series.record(10001, reading(20, 12, 25, HOUR));
+            series.record(10001, reading(30, 18, 35, 2 * HOUR));
+            series.record(10002, reading(-5, -10, 0, HOUR));
+
+            SeriesStats stats = series.stats(10001, HOUR, 2 * HOUR);
+            assertEquals(2, stats.samples());
+            assertEquals(12, stats.min());
+            assertEquals(35, stats.max());
+            assertEquals(25, stats.average());
+
+            assertEquals(3, series.stats(10001, 0, 3 * HOUR).samples());
+            assertEquals(SeriesStats.EMPTY, series.stats(10001, 3 * HOUR, 4 * HOUR));
+            assertEquals(SeriesStats.EMPTY, series.stats(10003, 0, 4 * HOUR));
+        }
+    }
+
+    @Test
+    void readingsAreRecordedInCelsiusAndNeverOutOfOrder() throws IOException {
+        try (ReadingSeries series = open(1024, 4)) {
+            series.record(10001, WeatherReading.builder()
+                    .currentTemperature(68).lowTemperature(50).highTemperature(86)
+                    .unit(Unit.FAHRENHEIT).fetchedAt(HOUR).build());
+            // Not newer than the last recorded reading
+            series.record(10001, reading(99, 99, 99, HOUR));
+            series.record(10001, reading(99, 99, 99, 0));
+
+            SeriesStats stats = series.stats(10001, 0, DAY);
+            assertEquals(1, stats.samples());
+            assertEquals(10, stats.min(), 1e-9);
+            assertEquals(30, stats.max(), 1e-9);
+            assertEquals(20, stats.average(), 1e-9);
+        }
+    }
+
+    @Test
+    void recentDaysRollUpNewestFirst() throws IOException {
+        try (ReadingSeries series = open(1024, 4, 2)) {
+            series.record(10001, reading(10, 5, 15, 0));
+            series.record(10001, reading(20, 8, 22, DAY + HOUR));
+            series.record(10001, reading(30, 12, 32, DAY + 2 * HOUR));
+            series.record(10001, reading(0, -4, 4, 2 * DAY));
+
+            List<ReadingSummary> days = series.recentDays(10001);
+            assertEquals(2, days.size());
+            assertEquals(new ReadingSummary(LocalDate.ofEpochDay(2), -4, 4, 0, Unit.CELSIUS), days.get(0));
+            assertEquals(new ReadingSummary(LocalDate.ofEpochDay(1), 8, 32, 25, Unit.CELSIUS), days.get(1));
+            assertTrue(series.recentDays(10002).isEmpty());
+        }
+    }
+
+    @Test
+    void nextForecastListsTheDailyRollups() throws IOException {
+        try (ReadingSeries series = open(1024, 4)) {
+            WeatherReading reading = reading(20, 10, 30, DAY);
+            series.record(10001, reading(0, -10, 10, 0));
+            series.record(10001, reading);
+            WeatherAPIResponse response = reading.toBuilder().history(series.recentDays(10001)).build()
+                    .toResponse(Unit.FAHRENHEIT);
+
+            assertEquals(3, response.getNextForecast().size());
+            assertEquals(68, response.getNextForecast().get(0).getCurrentTemperature(), 1e-9);
+            assertEquals("1970-01-02", response.getNextForecast().get(1).getLastUpdated());
+            assertEquals(50, response.getNextForecast().get(1).getLowTemperature(), 1e-9);
+            assertEquals(32, response.getNextForecast().get(2).getCurrentTemperature(), 1e-9);
+        }
+    }
+
+    @Test
+    void indexIsRebuiltWhenReopened() throws IOException {
+        try (ReadingSeries series = open(4, 4)) {
+            for (int i = 0; i < 6; i++) {
+                series.record(10001, reading(i, i, i, i * HOUR));
+            }
+        }
+        try (ReadingSeries series = open(4, 4)) {
+            assertEquals(6, series.stats(10001, 0, DAY).samples());
+            series.record(10001, reading(100, 100, 100, 2 * HOUR));
+            series.record(10001, reading(100, 100, 100, 6 * HOUR));
+            assertEquals(7, series.stats(10001, 0, DAY).samples());
+            assertEquals(100, series.stats(10001, 0, DAY).max());
+        }
+    }
+
+    @Test
+    void rowsOfDeletedSegmentsAreDropped() throws IOException {
+        try (ReadingSeries series = open(4, 2)) {
+            for (int i = 0; i < 10; i++) {
+                series.record(10001, reading(i, i, i, i * HOUR));
+            }
+            // Two segments of four rows are kept: readings 4 to 9
+            SeriesStats stats = series.stats(10001, 0, DAY);
+            assertEquals(6, stats.samples());
+            assertEquals(4, stats.min());
+            assertEquals(9, stats.max());
+        }
+    }
+
+    @Test
+    void zipsWhoseRowsAreAllDeletedAreDropped() throws IOException {
+        try (ReadingSeries series = open(4, 2)) {
+            series.record(10002, reading(-5, -10, 0, 0));
+            for (int i = 1; i < 10; i++) {
+                series.record(10001, reading(i, i, i, i * HOUR));
+            }
+            // The only reading of 10002 was in the first segment, deleted by the tenth row
+            assertEquals(SeriesStats.EMPTY, series.stats(10002, 0, DAY));
+            assertTrue(series.recentDays(10002).isEmpty());
+            assertEquals(1, series.recentDays(10001).size());
+
+            series.record(10002, reading(1, 1, 1, 0));
+            assertEquals(1, series.stats(10002, 0, DAY).samples());
+        }
+    }
+
+    private ReadingSeries open(int segmentRows, int maxSegments) throws IOException {
+        return open(segmentRows, maxSegments, 7);
+    }
+
+    private ReadingSeries open(int segmentRows, int maxSegments, int rollupDays) throws IOException {
+        return new ReadingSeries(new ReadingSeriesLog(directory, segmentRows, maxSegments), rollupDays, ZoneOffset.UTC);
+    }
+
+    private static WeatherReading reading(double current, double low, double high, long fetchedAt) {
+        return WeatherReading.builder()
+                .currentTemperature(current)
+                .lowTemperature(low)
+                .highTemperature(high)
+                .unit(Unit.CELSIUS)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.test.weather.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.sao.WeatherApi;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "weather.upstream.timeout-ms=200")
+class WeatherForecastServiceAsyncTests {
+
+    private static final int ZIP_CODE = 94105;
+
+    @Autowired
+    private AsyncWeatherForecastService asyncWeatherForecastService;
+
+    @Autowired
+    private HangingWeatherApi upstream;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void hungUpstreamCallDoesNotHoldTheZipCodesFlight() throws Exception {
+        // The first call to the external API never answers
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> asyncWeatherForecastService.getForecastAsync(ZIP_CODE, Unit.CELSIUS).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+
+        // The hung call is given up, which ends the zip code's flight
+        awaitNoFlights();
+
+        // So the next caller starts a fetch of its own instead of joining the hung one
+        ForecastResult result = asyncWeatherForecastService.getForecastAsync(ZIP_CODE, Unit.CELSIUS).get(5, TimeUnit.SECONDS);
+        assertEquals(CacheStatus.MISS, result.getStatus());
+        assertEquals(2, upstream.calls.get());
+
+        // And the hung call gave back its concurrency permit
+        assertEquals(0, registry.get("weather.upstream.limit.in-flight").gauge().value());
+    }
+
+    private void awaitNoFlights() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlightFetches() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, inFlightFetches());
+    }
+
+    private double inFlightFetches() {
+        return registry.get("weather.upstream.in-flight").gauge().value();
+    }
+
+    static class HangingWeatherApi extends WeatherApi {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<byte[]> getWeatherAsync(String zipCode) {
+            return calls.getAndIncrement() == 0 ? new CompletableFuture<>() : super.getWeatherAsync(zipCode);
+        }
+
+    }
+
+    @TestConfiguration
+    static class HangingUpstreamConfiguration {
+
+        @Bean
+        @Primary
+        HangingWeatherApi hangingWeatherApi() {
+            return new HangingWeatherApi();
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.test.weather.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.BatchForecastResponse;
+import com.test.weather.sao.WeatherApi;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "weather.batch.timeout-ms=50" })
+class WeatherForecastServiceBatchTests {
+
+    private static final int ZIP_CODE = 60601;
+
+    @Autowired
+    private WeatherForecastService weatherForecastService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void timedOutBatchLeavesTheSharedFetchRunning() throws Exception {
+        double upstreamCallsBefore = upstreamCalls();
+
+        // The batch starts the zip code's fetch and gives up on it after 50 ms; the fetch takes 500 ms
+        CompletableFuture<BatchForecastResponse> batch = CompletableFuture.supplyAsync(
+                () -> weatherForecastService.getForecasts(List.of(ZIP_CODE), Unit.CELSIUS));
+        TimeUnit.MILLISECONDS.sleep(100);
+        ForecastResult coalesced = weatherForecastService.getForecastResult(ZIP_CODE, Unit.CELSIUS);
+
+        BatchForecastResponse response = batch.get(5, TimeUnit.SECONDS);
+        assertTrue(response.getErrors().get(ZIP_CODE).startsWith("Timed out"), "the batch should give up on the slow fetch");
+
+        // The caller that joined the batch's fetch still got its reading, from the one upstream call
+        assertEquals(CacheStatus.MISS, coalesced.getStatus());
+        assertEquals(1, upstreamCalls() - upstreamCallsBefore);
+
+        // And the fetch filled the cache for the next batch
+        BatchForecastResponse next = weatherForecastService.getForecasts(List.of(ZIP_CODE), Unit.CELSIUS);
+        assertTrue(next.getErrors().isEmpty());
+        assertEquals(coalesced.toResponse(), next.getForecasts().get(ZIP_CODE));
+    }
+
+    private double upstreamCalls() {
+        return registry.get("weather.upstream.latency").timer().count();
+    }
+
+    @TestConfiguration
+    static class SlowUpstreamConfiguration {
+
+        @Bean
+        @Primary
+        WeatherApi slowWeatherApi() {
+            return new WeatherApi() {
+
+                @Override
+                public byte[] getWeatherBytes(String zipCode) throws JsonProcessingException {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.getWeatherBytes(zipCode);
+                }
+
+            };
+        }
+
+    }
+
+}
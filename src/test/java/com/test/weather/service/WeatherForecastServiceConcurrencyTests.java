@@ -0,0 +1,130 @@
+package com.test.weather.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.Unit;
+import com.test.weather.model.response.WeatherAPIResponse;
+import com.test.weather.utility.UnitConversion;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+class WeatherForecastServiceConcurrencyTests {
+
+    private static final int THREADS = 16;
+
+    private static final int ITERATIONS = 2_000;
+
+    private static final int[] ZIP_CODES = { 10001, 10002, 10003, 10004 };
+
+    @Autowired
+    private WeatherForecastService weatherForecastService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void concurrentReadersShareImmutableSnapshots() throws Exception {
+        Cache cache = cacheManager.getCache("weatherCache");
+        double upstreamCallsBefore = upstreamCalls();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<ForecastResult>>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                int offset = thread;
+                Callable<List<ForecastResult>> reader = () -> {
+                    List<ForecastResult> results = new ArrayList<>(ITERATIONS);
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        int zipCode = ZIP_CODES[(i + offset) % ZIP_CODES.length];
+                        Unit unit = (i + offset) % 2 == 0 ? Unit.CELSIUS : Unit.FAHRENHEIT;
+                        if (i % 250 == offset) {
+                            cache.evict(zipCode);
+                        }
+                        results.add(weatherForecastService.getForecastResult(zipCode, unit));
+                    }
+                    return results;
+                };
+                futures.add(executor.submit(reader));
+            }
+
+            Map<WeatherReading, WeatherAPIResponse[]> snapshots = new IdentityHashMap<>();
+            Map<WeatherReading, EnumSet<CacheStatus>> statuses = new IdentityHashMap<>();
+            int hits = 0;
+            int misses = 0;
+            for (Future<List<ForecastResult>> future : futures) {
+                for (ForecastResult result : future.get()) {
+                    WeatherReading reading = result.getReading();
+                    WeatherAPIResponse response = result.toResponse();
+
+                    // The response matches the request and the reading it came from
+                    assertEquals(result.getUnit(), response.getTemperatureUnit());
+                    assertEquals(UnitConversion.convert(reading.getCurrentTemperature(), reading.getUnit(), result.getUnit()),
+                            response.getCurrentTemperature());
+                    assertNull(response.getNextForecast().get(0).getNextForecast());
+
+                    statuses.computeIfAbsent(reading, r -> EnumSet.noneOf(CacheStatus.class)).add(result.getStatus());
+                    if (result.isCached()) {
+                        hits++;
+                    } else {
+                        misses++;
+                    }
+
+                    // Every reader of a reading in a unit got the very same instance
+                    WeatherAPIResponse[] byUnit = snapshots.computeIfAbsent(reading, r -> new WeatherAPIResponse[Unit.values().length]);
+                    if (byUnit[result.getUnit().ordinal()] == null) {
+                        byUnit[result.getUnit().ordinal()] = response;
+                    }
+                    assertSame(byUnit[result.getUnit().ordinal()], response);
+                }
+            }
+            assertEquals(THREADS * ITERATIONS, hits + misses);
+            assertTrue(hits > 0, "expected cache hits");
+            assertTrue(misses > 0, "expected cache misses");
+
+            // A reading is reported as a miss exactly when it came from an upstream call made for
+            // these requests: one per call, however many coalesced callers shared it
+            long fetchedReadings = statuses.values().stream().filter(s -> s.contains(CacheStatus.MISS)).count();
+            assertEquals(upstreamCalls() - upstreamCallsBefore, fetchedReadings);
+
+            // Cache status travels with the result, not on the shared response: the same reading,
+            // and so the same response instance, was served both as the miss and as later hits
+            assertTrue(statuses.values().stream().anyMatch(s -> s.contains(CacheStatus.MISS) && s.size() > 1),
+                    "expected a fetched reading to be served from the cache afterwards");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double upstreamCalls() {
+        return registry.get("weather.upstream.latency").timer().count();
+    }
+
+}
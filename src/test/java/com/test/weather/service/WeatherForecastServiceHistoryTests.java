@@ -0,0 +1,47 @@
+package com.test.weather.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.test.weather.model.cache.ForecastResult;
+import com.test.weather.model.enums.CacheStatus;
+import com.test.weather.model.enums.Unit;
+
+@SpringBootTest(properties = { "weather.cache.store=compact", "weather.series.enabled=true" })
+class WeatherForecastServiceHistoryTests {
+
+    private static final int ZIP_CODE = 30301;
+
+    @TempDir
+    static Path seriesDirectory;
+
+    @Autowired
+    private WeatherForecastService weatherForecastService;
+
+    @DynamicPropertySource
+    static void seriesPath(DynamicPropertyRegistry registry) {
+        registry.add("weather.series.path", seriesDirectory::toString);
+    }
+
+    @Test
+    void compactStoreHitsCarryTheSameHistoryAsTheMiss() throws Exception {
+        ForecastResult miss = weatherForecastService.getForecastResult(ZIP_CODE, Unit.FAHRENHEIT);
+        ForecastResult hit = weatherForecastService.getForecastResult(ZIP_CODE, Unit.FAHRENHEIT);
+
+        assertEquals(CacheStatus.MISS, miss.getStatus());
+        assertTrue(hit.isCached());
+        // The current values, then today's rollup
+        assertEquals(2, miss.toResponse().getNextForecast().size());
+        assertEquals(miss.toResponse().getNextForecast(), hit.toResponse().getNextForecast());
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.test.weather.subscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.weather.encoding.ForecastEncoder;
+import com.test.weather.model.cache.WeatherReading;
+import com.test.weather.model.enums.Unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ForecastBroadcasterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ForecastEncoder encoder = new ForecastEncoder(new ObjectMapper(), Jackson2ObjectMapperBuilder.json());
+
+    private final ForecastBroadcaster broadcaster = new ForecastBroadcaster(encoder, registry, 2, 60_000, 5_000, 15);
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void onlyChangedReadingsOfSubscribedZipCodesArePushed() {
+        broadcaster.subscribe(Set.of(10001), Unit.CELSIUS, zipCode -> null);
+
+        broadcaster.publish(20002, reading(20, 1));
+        broadcaster.publish(10001, reading(20, 1));
+        broadcaster.publish(10001, reading(20, 2));
+        broadcaster.publish(10001, reading(21, 3));
+
+        assertEquals(2, registry.get("weather.subscriptions.published").counter().count());
+        assertEquals(1, registry.get("weather.subscriptions.unchanged").counter().count());
+        assertEquals(Set.of(10001), broadcaster.getSubscribedZipCodes());
+    }
+
+    @Test
+    void currentReadingCountsAsPublished() {
+        broadcaster.subscribe(Set.of(10001, 10002), Unit.FAHRENHEIT, zipCode -> zipCode == 10001 ? reading(20, 1) : null);
+
+        broadcaster.publish(10001, reading(20, 2));
+        broadcaster.publish(10002, reading(20, 2));
+
+        assertEquals(1, registry.get("weather.subscriptions.published").counter().count());
+        assertEquals(1, registry.get("weather.subscriptions.unchanged").counter().count());
+    }
+
+    @Test
+    void subscriptionsAreCapped() {
+        assertNotNull(broadcaster.subscribe(Set.of(10001), Unit.CELSIUS, zipCode -> null));
+        assertNotNull(broadcaster.subscribe(Set.of(10002), Unit.CELSIUS, zipCode -> null));
+        assertNull(broadcaster.subscribe(Set.of(10003), Unit.CELSIUS, zipCode -> null));
+        assertEquals(2, registry.get("weather.subscriptions.active").gauge().value());
+    }
+
+    @Test
+    void closingInterruptsAStalledWriteAndCompletesTheStream() throws Exception {
+        StalledEmitter stalled = new StalledEmitter();
+        ExecutorService sendExecutor = Executors.newCachedThreadPool();
+        try {
+            ForecastSubscription subscription = new ForecastSubscription(stalled, Set.of(10001), Unit.CELSIUS, encoder, sendExecutor);
+            subscription.offer(new ForecastUpdate(10001, reading(20, 1)));
+            assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+
+            subscription.close();
+            assertTrue(stalled.completed.await(5, TimeUnit.SECONDS), "close should not wait for the stalled write");
+            assertTrue(stalled.interrupted);
+        } finally {
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void continuouslyFedSubscriberThatKeepsUpDoesNotLag() throws Exception {
+        CountingEmitter emitter = new CountingEmitter();
+        ExecutorService sendExecutor = Executors.newCachedThreadPool();
+        try {
+            ForecastSubscription subscription = new ForecastSubscription(emitter, Set.of(10001), Unit.CELSIUS, encoder, sendExecutor);
+            // The first write encodes the body and loads classes, so it is not measured
+            subscription.offer(new ForecastUpdate(10001, reading(20, 1)));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (emitter.sent.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            // Updates arrive faster than one write takes, so the drain never runs out of work
+            long maxLagNanos = 0;
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+            for (long fetchedAt = 2; System.nanoTime() < end; fetchedAt++) {
+                subscription.offer(new ForecastUpdate(10001, reading(20 + fetchedAt % 2, fetchedAt)));
+                maxLagNanos = Math.max(maxLagNanos, subscription.lagNanos(System.nanoTime()));
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            }
+
+            assertTrue(emitter.sent.get() > 20, "expected the subscriber to keep receiving updates");
+            assertTrue(maxLagNanos < TimeUnit.MILLISECONDS.toNanos(100), "lag grew to " + maxLagNanos + " ns");
+        } finally {
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * An emitter whose client reads every event promptly, taking a millisecond per write.
+     */
+    private static class CountingEmitter extends SseEmitter {
+
+        final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            sent.incrementAndGet();
+        }
+
+    }
+
+    /**
+     * An emitter whose client stopped reading: a send blocks until the writing thread is interrupted.
+     */
+    private static class StalledEmitter extends SseEmitter {
+
+        final CountDownLatch writing = new CountDownLatch(1);
+
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        volatile boolean interrupted;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted = true;
+                throw new IOException("Write interrupted", e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+    }
+
+    private static WeatherReading reading(double current, long fetchedAt) {
+        return WeatherReading.builder()
+                .currentTemperature(current)
+                .lowTemperature(current - 5)
+                .highTemperature(current + 5)
+                .unit(Unit.CELSIUS)
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.test.weather.utility;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTests {
+
+    private final SingleFlight<Integer, Object, IOException> flight = new SingleFlight<>(IOException.class);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followersShareTheLeadersLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+
+        Future<Object> leader = executor.submit(() -> flight.execute(10001, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.join();
+            return value;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> flight.execute(10001, () -> {
+            loads.incrementAndGet();
+            return new Object();
+        }));
+        awaitCoalesced(1);
+        release.complete(null);
+
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        assertSame(value, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getFlightCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    void followersGetTheLeadersCheckedFailure() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        IOException failure = new IOException("upstream down");
+
+        Future<Object> leader = executor.submit(() -> flight.execute(10001, () -> {
+            loading.countDown();
+            release.join();
+            throw failure;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> flight.execute(10001, Object::new));
+        awaitCoalesced(1);
+        release.complete(null);
+
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderFailure.getCause());
+        // Unwrapped from the shared future, with its checked type
+        assertSame(failure, followerFailure.getCause());
+
+        // A failed flight is not remembered; the next caller loads again
+        Object value = new Object();
+        assertSame(value, flight.execute(10001, () -> value));
+    }
+
+    @Test
+    void cancellingAFollowersCopyLeavesTheLoadRunning() throws Exception {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        Object value = new Object();
+
+        CompletableFuture<Object> leader = flight.executeAsync(10001, () -> load);
+        CompletableFuture<Object> follower = flight.executeAsync(10001, () -> CompletableFuture.completedFuture(new Object()));
+        CompletableFuture<Object> other = flight.executeAsync(10001, () -> CompletableFuture.completedFuture(new Object()));
+        assertEquals(2, flight.getCoalescedCount());
+
+        assertTrue(follower.cancel(true));
+        assertFalse(leader.isDone());
+        assertFalse(load.isCancelled());
+        assertEquals(1, flight.getInFlightCount());
+
+        load.complete(value);
+        assertSame(value, leader.get(5, TimeUnit.SECONDS));
+        assertSame(value, other.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, follower::join);
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    void blockingCallersJoinAnAsyncFlight() throws Exception {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        IOException failure = new IOException("upstream down");
+
+        CompletableFuture<Object> leader = flight.executeAsync(10001, () -> load);
+        Future<Object> follower = executor.submit(() -> flight.execute(10001, Object::new));
+        awaitCoalesced(1);
+        load.completeExceptionally(failure);
+
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertSame(failure, followerFailure.getCause());
+        ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertSame(failure, leaderFailure.getCause());
+        assertEquals(1, flight.getFlightCount());
+    }
+
+    @Test
+    void otherCheckedFailuresReachBlockingCallersWrapped() throws Exception {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        TimeoutException failure = new TimeoutException("upstream timed out");
+
+        flight.executeAsync(10001, () -> load);
+        Future<Object> follower = executor.submit(() -> flight.execute(10001, Object::new));
+        awaitCoalesced(1);
+        load.completeExceptionally(failure);
+
+        // Not an IOException, so it cannot be thrown through the follower's signature as it is
+        ExecutionException followerFailure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CompletionException.class, followerFailure.getCause());
+        assertSame(failure, followerFailure.getCause().getCause());
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getCoalescedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, flight.getCoalescedCount());
+    }
+
+}